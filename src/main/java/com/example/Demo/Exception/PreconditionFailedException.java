@@ -0,0 +1,8 @@
+package com.example.Demo.Exception;
+
+// A conditional request (If-Match) whose precondition no longer holds
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.Demo.Exception;
+
+// The server cannot take the request right now, e.g. a full write-behind queue; the client should retry later
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.Demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+//schema update: creates entity_change_seq before Hibernate updates the tables, as the column
+//default of entities.change_seq refers to it and Hibernate only creates sequences after tables
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.hibernate.ddl-auto", havingValue = "update")
+public class ChangeSequenceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeSequenceConfig.class);
+
+    // Static, as it post-processes the bean definitions of the entity manager factory
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor changeSequenceDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor("changeSequenceInitializer");
+    }
+
+    /**
+     * Same definition as the @SequenceGenerator of EntityTombstone, so the schema update finds
+     * it as expected. A failure is only logged: the schema update then reports what is missing.
+     */
+    @Bean
+    public InitializingBean changeSequenceInitializer(DataSource dataSource) {
+        return () -> {
+            try {
+                new JdbcTemplate(dataSource).execute("create sequence if not exists entity_change_seq start with 1 increment by 1");
+            } catch (DataAccessException ex) {
+                logger.warn("Could not create sequence entity_change_seq: {}", ex.getMessage());
+            }
+        };
+    }
+}
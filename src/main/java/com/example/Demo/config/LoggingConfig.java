@@ -0,0 +1,23 @@
+package com.example.Demo.config;
+
+import com.example.Demo.logging.LogSamplingProperties;
+import com.example.Demo.logging.RequestLogSamplingInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+//Per-endpoint log sampling; the asynchronous appender itself is set up in logback-spring.xml
+@Configuration
+@EnableConfigurationProperties(LogSamplingProperties.class)
+public class LoggingConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private LogSamplingProperties logSamplingProperties;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestLogSamplingInterceptor(logSamplingProperties));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.Demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//Runs @Scheduled maintenance tasks, e.g. the reconciliation of the entity counters
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,69 +1,113 @@
 package com.example.Demo.config;
 
+import com.example.Demo.security.CachingAuthenticationProvider;
+import com.example.Demo.security.JwtTokenService;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.example.Demo.service.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+
 //SecurityConfig class for auth
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public UserDetailsService userDetailsService() {
-        // Create two users with roles ADMIN and USER
-        UserDetails admin = User.withUsername("admin")
-                .password("admin123")
-                .roles("ADMIN")
-                .build();
+    public CachingAuthenticationProvider authenticationProvider(
+            CustomUserDetailsService userDetailsService,
+            @Value("${security.auth-cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.auth-cache.ttl:60s}") Duration ttl) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder());
+        provider.setUserDetailsService(userDetailsService);
+        // Verifying a hashed password costs tens of ms of CPU; repeated credentials are served from the cache
+        return new CachingAuthenticationProvider(provider, userDetailsService::credentialsVersion, maximumSize, ttl);
+    }
 
-        UserDetails user = User.withUsername("user")
-                .password("user123")
-                .roles("USER")
-                .build();
+    @Bean
+    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
+        return config.getAuthenticationManager();
+    }
 
-        return new InMemoryUserDetailsManager(admin, user);
+    // HS256 key shared by every node, so a token issued by one node is accepted by all of them
+    @Bean
+    public SecretKey jwtSigningKey(@Value("${security.jwt.secret}") String secret) {
+        byte[] key = Base64.getDecoder().decode(secret);
+        if (key.length < 32) {
+            throw new IllegalStateException("security.jwt.secret must encode at least 256 bits");
+        }
+        return new SecretKeySpec(key, "HmacSHA256");
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService) {
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder()); // Set password encoder
-        return provider;
+    public JwtEncoder jwtEncoder(SecretKey jwtSigningKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(jwtSigningKey));
     }
 
+    // Validation is a signature, issuer and expiry check; no I/O per request
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    public JwtDecoder jwtDecoder(SecretKey jwtSigningKey, @Value("${security.jwt.issuer:entity-service}") String issuer) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(jwtSigningKey)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        return decoder;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        // The roles claim holds ADMIN/USER; hasRole() expects ROLE_ADMIN/ROLE_USER
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName(JwtTokenService.ROLES_CLAIM);
+        authorities.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(authorities);
+
         http
                 .csrf().disable()
+                // No HTTP session: every request carries its credentials, so any node can serve it
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Open to the load balancer; only health and prometheus are exposed
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Per-URI latencies, pool and Hibernate statistics: only for the scraper's account
+                        .requestMatchers("/actuator/prometheus").hasRole("METRICS")
+                        .requestMatchers(HttpMethod.POST, "/auth/token").permitAll()
                         .requestMatchers(HttpMethod.GET, "/entities/**").hasRole("USER")
                         .requestMatchers("/entities/**").hasRole("ADMIN")
+                        .requestMatchers("/users/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
-                .formLogin(); // Enable form-based login
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter)))
+                .httpBasic(Customizer.withDefaults()); // Clients without a token may still send credentials on every request
         return http.build();
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return NoOpPasswordEncoder.getInstance(); // NoOp for demo; use BCryptPasswordEncoder in production
+        // bcrypt for new passwords; stored hashes carry their {id} prefix, so older encodings still verify
+        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
     }
 }
@@ -0,0 +1,57 @@
+package com.example.Demo.config;
+
+import com.example.Demo.trace.SqlExplainer;
+import com.example.Demo.trace.SqlTraceFilter;
+import com.example.Demo.trace.SqlTraceListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+//SQL tracing: statement timing per service method, per-request budget and slow-query checks
+@Configuration
+@ConditionalOnProperty(name = "sql.trace.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTraceConfig {
+
+    // Static so the DataSource is wrapped before anything else looks it up
+    @Bean
+    public static BeanPostProcessor sqlTraceDataSourceWrapper(
+            @Value("${sql.trace.slow-query-threshold:200ms}") Duration slowQueryThreshold) {
+        SqlTraceListener listener = new SqlTraceListener(slowQueryThreshold);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource).listener(listener).build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlTraceFilter> sqlTraceFilter(
+            MeterRegistry meterRegistry,
+            DataSource dataSource,
+            @Value("${sql.trace.statement-budget:10}") int statementBudget,
+            @Value("${sql.trace.repeat-threshold:5}") int repeatThreshold,
+            @Value("${sql.trace.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+            @Value("${sql.trace.explain:false}") boolean explain,
+            @Value("${sql.trace.explain-interval:10m}") Duration explainInterval) {
+        DataSource target = dataSource instanceof ProxyDataSource proxy ? proxy.getDataSource() : dataSource;
+        SqlTraceFilter filter = new SqlTraceFilter(meterRegistry, statementBudget, repeatThreshold,
+                slowQueryThreshold, explain ? new SqlExplainer(target, explainInterval) : null);
+        FilterRegistrationBean<SqlTraceFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
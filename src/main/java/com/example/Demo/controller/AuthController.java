@@ -0,0 +1,48 @@
+package com.example.Demo.controller;
+
+import com.example.Demo.model.common.TokenResponse;
+import com.example.Demo.model.dto.LoginDTO;
+import com.example.Demo.security.JwtTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+@RestController
+@RequestMapping("/auth")
+@Tag(name = "Authentication", description = "APIs for obtaining access tokens")
+public class AuthController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+    @Autowired
+    private AuthenticationManager authenticationManager;
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    /**
+     * Endpoint to exchange a username and password for a bearer token.
+     * @param loginDTO The credentials.
+     * @return ResponseEntity containing the signed token and its lifetime.
+     */
+    @Operation(summary = "Issue an access token", description = "Verifies the credentials and returns a signed bearer token carrying the user's roles")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Token issued"),
+            @ApiResponse(responseCode = "401", description = "Invalid credentials")
+    })
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponse> token(@Valid @RequestBody LoginDTO loginDTO) {
+        logger.info("Received token request for user {}", loginDTO.getUsername());
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(loginDTO.getUsername(), loginDTO.getPassword()));
+        return new ResponseEntity<>(jwtTokenService.issue(authentication), HttpStatus.OK);
+    }
+}
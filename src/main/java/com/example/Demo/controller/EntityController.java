@@ -2,10 +2,24 @@ package com.example.Demo.controller;
 
 import com.example.Demo.Exception.EntityNotFoundException;
 import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.BulkResponse;
+import com.example.Demo.model.common.CountMode;
+import com.example.Demo.model.common.EntityCriteria;
+import com.example.Demo.model.common.EntityFields;
+import com.example.Demo.model.common.EntityVersion;
+import com.example.Demo.model.common.ExportFormat;
 import com.example.Demo.model.common.PageResponse;
+import com.example.Demo.model.common.WriteBehindStatus;
 import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dto.BulkOperationDTO;
 import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.model.dto.EntityPatchDTO;
+import com.example.Demo.service.EntityBulkService;
+import com.example.Demo.service.EntityChangeService;
+import com.example.Demo.service.EntityDeltaService;
+import com.example.Demo.service.EntityExportService;
 import com.example.Demo.service.EntityService;
+import com.example.Demo.service.EntityWriteBehindService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -14,10 +28,22 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 @RestController
 @RequestMapping("/entities")
 @Tag(name = "Entity Management", description = "APIs for managing entities")
@@ -26,53 +52,157 @@ public class EntityController {
     private  static  final Logger logger = LoggerFactory.getLogger(EntityController.class);
     @Autowired
     private EntityService entityService;
+    @Autowired
+    private EntityBulkService entityBulkService;
+    @Autowired
+    private EntityWriteBehindService entityWriteBehindService;
+    @Autowired
+    private EntityExportService entityExportService;
+    @Autowired
+    private EntityChangeService entityChangeService;
+    @Autowired
+    private EntityDeltaService entityDeltaService;
 
     /**
      *Endpoint to add a new entity
+     * With Prefer: respond-async the entity is only validated, journaled and queued: the response
+     * is a 202 with the assigned id and a status URL, and a background writer inserts it in a batch.
      * @param entityDTO -  The details of the entity to be created.
-     * @return ResponseEntity containing the created entity.
+     * @param prefer Optional Prefer header; respond-async selects write-behind creation.
+     * @return ResponseEntity containing the created entity, or the pending status for respond-async.
      * @throws ValidationException ValidationException if the provided data is invalid.
      */
 
-    @Operation(summary = "Add a new entity", description = "Creates a new user in the system")
+    @Operation(summary = "Add a new entity", description = "Creates a new user in the system; supports Prefer: respond-async")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "entity created successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid input data")
+            @ApiResponse(responseCode = "202", description = "entity accepted for asynchronous creation"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "429", description = "Asynchronous creation queue is full, retry later")
     })
     @PostMapping("/")
-    public ResponseEntity<?> addEntity(@Valid @RequestBody EntityDTO entityDTO)throws ValidationException {
-        logger.info("Received request to add Entity: {}", entityDTO);
+    public ResponseEntity<?> addEntity(@Valid @RequestBody EntityDTO entityDTO,
+                                       @RequestHeader(value = "Prefer", required = false) String prefer) throws ValidationException {
+        logger.info("Received request to add Entity: {}", entityDTO.getName());
+        if (prefer != null && prefer.contains("respond-async") && entityWriteBehindService.isEnabled()) {
+            WriteBehindStatus status = entityWriteBehindService.submit(entityDTO);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setLocation(URI.create("/entities/_pending/" + status.getId()));
+            headers.set("Preference-Applied", "respond-async");
+            return new ResponseEntity<>(status, headers, HttpStatus.ACCEPTED);
+        }
         Entity entity = entityService.addEntity(entityDTO);
         logger.info("Entity created successfully");
         return new ResponseEntity<>(entity,HttpStatus.CREATED);
     }
 
+    /**
+     * Endpoint to follow an entity accepted with Prefer: respond-async.
+     * @param id The id returned in the 202 response.
+     * @return ResponseEntity containing PENDING, CREATED (with the entity's Location) or FAILED.
+     */
+    @Operation(summary = "Get asynchronous creation status", description = "Tells whether an Entity accepted with Prefer: respond-async has been created")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Unknown id")
+    })
+    @GetMapping("/_pending/{id}")
+    public ResponseEntity<?> getPendingStatus(@PathVariable Long id) {
+        WriteBehindStatus status = entityWriteBehindService.getStatus(id)
+                .orElseThrow(() -> new EntityNotFoundException("No entity accepted with id: " + id));
+        HttpHeaders headers = new HttpHeaders();
+        if (status.getState() == WriteBehindStatus.State.CREATED) {
+            headers.setLocation(URI.create("/entities/" + id));
+        }
+        return new ResponseEntity<>(status, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to apply many create, update and delete operations in one request.
+     * @param operations The operations to apply, in order.
+     * @return ResponseEntity containing one result per operation.
+     * @throws ValidationException ValidationException if the request is empty or too large.
+     */
+    @Operation(summary = "Bulk create, update and delete", description = "Applies the operations in chunked transactions and reports a result per operation")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Bulk request processed, see per-item status"),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized bulk request")
+    })
+    @PostMapping("/_bulk")
+    public ResponseEntity<?> bulk(@RequestBody List<BulkOperationDTO> operations) throws ValidationException {
+        logger.info("Received bulk request with {} operations", operations.size());
+        BulkResponse response = entityBulkService.execute(operations);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Endpoint to fetch an entity by its ID.
+     * The response carries an ETag (the entity version) and Last-Modified. A request with
+     * If-None-Match or If-Modified-Since is answered from a version lookup, and gets a 304
+     * without the entity being loaded when it has not changed.
+     * With fields only those attributes are selected and returned, without validators.
      * @param id  The unique ID of the entity.
-     * @return ResponseEntity containing the entity details.
+     * @param fields Optional comma-separated attributes to return, e.g. entityId,name.
+     * @param webRequest The request, for its conditional headers.
+     * @return ResponseEntity containing the entity details, or null once a 304 has been set.
+     * @throws ValidationException ValidationException if a field name is unknown.
      */
-    @Operation(summary = "Get Entity by ID", description = "Fetches Entity details by their unique ID")
+    @Operation(summary = "Get Entity by ID", description = "Fetches Entity details by their unique ID; supports If-None-Match, If-Modified-Since and sparse fields")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Entity found"),
+            @ApiResponse(responseCode = "304", description = "Entity not modified"),
+            @ApiResponse(responseCode = "400", description = "Unknown field"),
             @ApiResponse(responseCode = "404", description = "Entity not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<?> getEntityById(@PathVariable Long id) {
+    public ResponseEntity<?> getEntityById(@PathVariable Long id,
+                                           @RequestParam(required = false) String fields,
+                                           WebRequest webRequest) throws ValidationException {
         logger.info("Received request to get Entity with id: {}", id);
+        EntityFields entityFields = EntityFields.parse(fields);
+        if (entityFields != null) {
+            Map<String, Object> entity = entityService.getEntityFields(id, entityFields)
+                    .orElseThrow(() -> new EntityNotFoundException("Entity not found with id: " + id));
+            return new ResponseEntity<>(entity, HttpStatus.OK);
+        }
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            Optional<EntityVersion> current = entityService.getEntityVersion(id);
+            if (current.isPresent() && webRequest.checkNotModified(current.get().eTag(), current.get().lastModifiedMillis())) {
+                // Status 304, ETag and Last-Modified are already set on the response
+                return null;
+            }
+        }
         Entity entity = entityService.getEntity(id)
                 .orElseThrow(() -> new EntityNotFoundException("Entity not found with id: " + id));
-        return new ResponseEntity<>(entity, HttpStatus.OK);
+        EntityVersion version = EntityVersion.of(entity);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(version.eTag());
+        if (version.modifiedAt() != null) {
+            response.lastModified(version.modifiedAt());
+        }
+        return response.body(entity);
     }
 
     /**
      *  Endpoint to fetch all entities with optional filters and pagination.
+     *  All filters that are provided are combined with AND; date bounds are inclusive (yyyy-MM-dd).
      * @param pageNo Page number for pagination (default: 0).
      * @param pageSize Number of records per page (default: 10).
      * @param name Optional filter by name.
-     * @param sortBy Field to sort the results (default: createdAt).
+     * @param sortBy Field to sort the results: createdAt (default) or updatedAt.
+     * @param direction Sort direction: asc (default) or desc.
      * @param entityType Optional filter by entity type.
+     * @param createdFrom Optional lower bound of createdAt.
+     * @param createdTo Optional upper bound of createdAt.
+     * @param updatedFrom Optional lower bound of updatedAt.
+     * @param updatedTo Optional upper bound of updatedAt.
+     * @param after Optional keyset cursor; when present (empty for the first page) pageNo is ignored
+     *              and the next page is located by the cursor instead of an offset.
+     * @param count How totalPages is computed: exact (default, runs a COUNT query), cached
+     *              (approximate, refreshed periodically) or none (hasNext only, single query).
+     * @param fields Optional comma-separated attributes to return per row, e.g. entityId,name;
+     *               only those columns are selected.
      * @return ResponseEntity containing a paginated list of entities.
+     * @throws ValidationException ValidationException if a filter, the cursor, the count mode or a field is invalid.
      */
 
     @Operation(summary = "Get all Entities", description = "Fetches a paginated list of all Entity")
@@ -85,32 +215,178 @@ public class EntityController {
             @RequestParam(defaultValue = "10") int pageSize,
             @RequestParam(required = false) String name,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(required = false) String entityType) {
-        logger.info("Received request to get all Entities with pageNo: {}, pageSize: {}, name: {}, sortBy: {}, entityType: {}", pageNo, pageSize, name, sortBy, entityType);
-        PageResponse user = entityService.getAllEntity(pageNo, pageSize, name, sortBy, entityType);
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate updatedTo,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "exact") String count,
+            @RequestParam(required = false) String fields) throws ValidationException {
+        EntityCriteria criteria = new EntityCriteria(EntityCriteria.parseEntityType(entityType), name);
+        criteria.setCreatedFrom(createdFrom);
+        criteria.setCreatedTo(createdTo);
+        criteria.setUpdatedFrom(updatedFrom);
+        criteria.setUpdatedTo(updatedTo);
+        EntityFields entityFields = EntityFields.parse(fields);
+        PageResponse user = after != null
+                ? entityService.getAllEntityAfter(after, criteria, pageSize, sortBy, direction, entityFields)
+                : entityService.getAllEntity(criteria, pageNo, pageSize, sortBy, direction, CountMode.from(count), entityFields);
         logger.info("Fetched {} Entities", user.getData().size());
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
 
+    /**
+     * Endpoint to fetch the statistics of the entity near-cache.
+     * @return ResponseEntity containing hit, miss and eviction counts.
+     */
+    @Operation(summary = "Get Entity cache statistics", description = "Fetches hit, miss and eviction statistics of the Entity cache")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Statistics fetched successfully")
+    })
+    @GetMapping("/_cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        return new ResponseEntity<>(entityService.getCacheStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to fetch the number of entities per type.
+     * @return ResponseEntity containing the per-type counts, kept incrementally and reconciled periodically.
+     */
+    @Operation(summary = "Get Entity counts", description = "Fetches the number of Entities per type without running COUNT")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Counts fetched successfully")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        return new ResponseEntity<>(entityService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to follow entity changes as server-sent events instead of polling the listing.
+     * Every committed create, update and delete is sent as a created, updated or deleted event
+     * naming the entity. A client reconnecting with Last-Event-ID is first sent the events it
+     * missed, or a reset event when they are too old, after which it should re-read.
+     * Events are those of the instance serving the stream.
+     * @param lastEventId Optional id of the last event received, sent by EventSource on reconnect.
+     * @return The event stream.
+     */
+    @Operation(summary = "Stream Entity changes", description = "Server-sent events for created, updated and deleted Entities; resumes after Last-Event-ID")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Event stream opened")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("Received request to stream Entity changes after: {}", lastEventId);
+        return entityChangeService.subscribe(lastEventId);
+    }
+
+    /**
+     * Endpoint to sync entities incrementally. Returns the entities created or updated and the ids
+     * of those deleted after the since token, in change order, with the token to pass next time.
+     * Without since it starts from the beginning, which is a full sync. Changes show up after
+     * entity.delta.settle, once no write that started before them can still commit.
+     * @param since Optional nextToken of the previous call.
+     * @param limit Maximum number of changed and deleted entries to return.
+     * @return ResponseEntity containing the changes and the next token.
+     * @throws ValidationException ValidationException if the token is invalid or expired, or the limit is out of range.
+     */
+    @Operation(summary = "Get Entity changes since a token", description = "Changed Entities and deleted ids after the since token, with the token for the next call")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Changes fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid or expired token, or limit out of range")
+    })
+    @GetMapping("/delta")
+    public ResponseEntity<?> getDelta(@RequestParam(required = false) String since,
+                                      @RequestParam(defaultValue = "1000") int limit) throws ValidationException {
+        logger.info("Received request to fetch Entity changes since: {}", since);
+        return new ResponseEntity<>(entityDeltaService.getDelta(since, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to export every entity as a stream.
+     * @param format Output format: ndjson (default) or csv.
+     * @return ResponseEntity whose body is written row by row while the table is read.
+     * @throws ValidationException ValidationException if the format is unknown.
+     */
+    @Operation(summary = "Export all Entities", description = "Streams the whole entities table as NDJSON or CSV")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown export format")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEntities(@RequestParam(defaultValue = "ndjson") String format) throws ValidationException {
+        logger.info("Received request to export Entities as {}", format);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = outputStream -> entityExportService.export(exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .body(body);
+    }
+
     /**
      * Endpoint to update an entity's details.
+     * With If-Match the update only applies if the entity still has that version (its ETag);
+     * the check is part of the UPDATE statement, so concurrent writers never block each other.
      * @param id The unique ID of the entity to be updated.
+     * @param ifMatch Optional ETag the client last read; without it the update overwrites unconditionally.
      * @param entityDTO The new details of the entity.
-     * @return ResponseEntity with a success message.
-     * @throws ValidationException ValidationException if the provided data is invalid.
+     * @return ResponseEntity with a success message, and the new ETag when If-Match was given.
+     * @throws ValidationException ValidationException if the provided data or If-Match is invalid.
      */
 
-    @Operation(summary = "Update a Entity", description = "Updates Entity details for the given ID")
+    @Operation(summary = "Update a Entity", description = "Updates Entity details for the given ID; supports If-Match")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Entity updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Entity not found")
+            @ApiResponse(responseCode = "404", description = "Entity not found"),
+            @ApiResponse(responseCode = "412", description = "Entity was modified since the If-Match version")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateEntity(@PathVariable Long id, @Valid @RequestBody EntityDTO entityDTO)throws ValidationException {
+    public ResponseEntity<?> updateEntity(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @Valid @RequestBody EntityDTO entityDTO)throws ValidationException {
         logger.info("Received request to update Entity with id: {}", id);
-        entityService.updateEntity(id, entityDTO);
+        Long expectedVersion = EntityVersion.fromIfMatch(ifMatch);
+        entityService.updateEntity(id, entityDTO, expectedVersion);
         logger.info("Entity with id {} updated successfully", id);
-        return new ResponseEntity<>("Entity updated successfully",HttpStatus.OK);
+        return updated(expectedVersion);
+    }
+
+    /**
+     * Endpoint to partially update an entity's details.
+     * With If-Match the update only applies if the entity still has that version (its ETag).
+     * @param id The unique ID of the entity to be updated.
+     * @param ifMatch Optional ETag the client last read; without it the update applies unconditionally.
+     * @param patchDTO The fields to change; omitted fields are left unchanged.
+     * @return ResponseEntity with a success message, and the new ETag when If-Match was given.
+     * @throws ValidationException ValidationException if no field is provided or If-Match is invalid.
+     */
+    @Operation(summary = "Partially update a Entity", description = "Updates only the provided Entity fields for the given ID; supports If-Match")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Entity updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "404", description = "Entity not found"),
+            @ApiResponse(responseCode = "412", description = "Entity was modified since the If-Match version")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchEntity(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         @Valid @RequestBody EntityPatchDTO patchDTO) throws ValidationException {
+        logger.info("Received request to patch Entity with id: {}", id);
+        Long expectedVersion = EntityVersion.fromIfMatch(ifMatch);
+        entityService.patchEntity(id, patchDTO, expectedVersion);
+        logger.info("Entity with id {} patched successfully", id);
+        return updated(expectedVersion);
+    }
+
+    // A conditional update moved the entity from the expected version to exactly the next one
+    private static ResponseEntity<?> updated(Long expectedVersion) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (expectedVersion != null) {
+            response.eTag(String.valueOf(expectedVersion + 1));
+        }
+        return response.body("Entity updated successfully");
     }
 
     /**
@@ -130,4 +406,26 @@ public class EntityController {
         logger.info("Entity with id {} deleted successfully", id);
         return new ResponseEntity<>("Entity deleted successfully",HttpStatus.OK);
     }
+
+    /**
+     * Endpoint to delete every entity matching the filters.
+     * @param entityType Optional filter by entity type.
+     * @param updatedBefore Optional filter: entities last updated before this date (yyyy-MM-dd).
+     * @return ResponseEntity containing the number of deleted entities.
+     * @throws ValidationException ValidationException if no filter is given.
+     */
+    @Operation(summary = "Delete Entities by filter", description = "Deletes matching Entities in bounded chunks")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Entities deleted successfully"),
+            @ApiResponse(responseCode = "400", description = "Missing or invalid filter")
+    })
+    @DeleteMapping({"", "/"})
+    public ResponseEntity<?> deleteEntities(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate updatedBefore) throws ValidationException {
+        logger.info("Received request to delete Entities with entityType: {}, updatedBefore: {}", entityType, updatedBefore);
+        long deleted = entityService.deleteEntities(entityType, updatedBefore);
+        logger.info("{} Entities deleted successfully", deleted);
+        return new ResponseEntity<>(Map.of("deleted", deleted), HttpStatus.OK);
+    }
 }
@@ -0,0 +1,64 @@
+package com.example.Demo.controller;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.dto.PasswordChangeDTO;
+import com.example.Demo.service.AppUserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+@RestController
+@RequestMapping("/users")
+@Tag(name = "User Management", description = "APIs for managing API users")
+public class UserController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    @Autowired
+    private AppUserService appUserService;
+
+    /**
+     * Endpoint to change the password of a user. Cached authentications of the user are dropped.
+     * @param username The name of the user.
+     * @param passwordChangeDTO The new password.
+     * @return ResponseEntity containing the updated user.
+     */
+    @Operation(summary = "Change a user's password", description = "Stores a new password and invalidates cached authentications of the user")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Password changed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid password"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PutMapping("/{username}/password")
+    public ResponseEntity<?> changePassword(@PathVariable String username, @Valid @RequestBody PasswordChangeDTO passwordChangeDTO) {
+        logger.info("Received request to change password of user {}", username);
+        return new ResponseEntity<>(appUserService.changePassword(username, passwordChangeDTO.getPassword()), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to replace the roles of a user. Cached authentications of the user are dropped.
+     * @param username The name of the user.
+     * @param roles The new role names (ADMIN, USER).
+     * @return ResponseEntity containing the updated user.
+     * @throws ValidationException ValidationException if a role is unknown or none is given.
+     */
+    @Operation(summary = "Change a user's roles", description = "Replaces the roles and invalidates cached authentications of the user")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Roles changed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid roles"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PutMapping("/{username}/roles")
+    public ResponseEntity<?> changeRoles(@PathVariable String username, @RequestBody List<String> roles) throws ValidationException {
+        logger.info("Received request to change roles of user {}", username);
+        return new ResponseEntity<>(appUserService.changeRoles(username, roles), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.Demo.datasource;
+
+/**
+ * Sends the read-only work of the current thread to the primary instead of a replica, for
+ * callers that just wrote and must not read from a replica that has not caught up yet:
+ * <pre>
+ * try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+ *     entityService.getEntity(id);
+ * }
+ * </pre>
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @return A scope that restores the previous routing when closed; scopes may be nested.
+     */
+    public static Scope begin() {
+        Boolean previous = ACTIVE.get();
+        ACTIVE.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                ACTIVE.remove();
+            } else {
+                ACTIVE.set(previous);
+            }
+        };
+    }
+
+    public static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+}
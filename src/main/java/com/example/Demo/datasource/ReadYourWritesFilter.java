@@ -0,0 +1,54 @@
+package com.example.Demo.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes for API callers: a write request runs all of its reads on the primary, and
+ * so do the reads of the same user for a short window after it, until the replicas have caught
+ * up. Only writes made through this instance are known.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Cache<String, Boolean> recentWriters;
+
+    /**
+     * @param window How long after a write the user's reads stay on the primary; about the replication lag.
+     */
+    public ReadYourWritesFilter(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String user = request.getRemoteUser();
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (user == null || !(write || recentWriters.getIfPresent(user) != null)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (write) {
+                // Counted from the end of the write, when it has committed
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.Demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions. Each connection comes from one of the replica pools,
+ * picked round-robin or by the fewest active plus waiting connections. Inside a
+ * {@link ReadYourWrites} scope, or when the picked replica cannot hand out a connection, the
+ * primary serves the read instead. A replica that failed is skipped for the retry delay, so an
+ * outage costs one connection timeout per delay rather than one per read.
+ */
+public class ReplicaDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    public enum Balancing {
+        ROUND_ROBIN,
+        LEAST_BUSY
+    }
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    private final Balancing balancing;
+
+    private final Duration retryDelay;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    // System.nanoTime() until which a failed replica is not picked
+    private final Map<DataSource, Long> unavailableUntil = new ConcurrentHashMap<>();
+
+    private interface Connector {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    public ReplicaDataSource(DataSource primary, List<DataSource> replicas, Balancing balancing, Duration retryDelay) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.balancing = balancing;
+        this.retryDelay = retryDelay;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connection(Connector connector) throws SQLException {
+        if (ReadYourWrites.isActive()) {
+            return connector.connect(primary);
+        }
+        DataSource replica = pick();
+        if (replica == null) {
+            // Every replica failed within the retry delay
+            return connector.connect(primary);
+        }
+        try {
+            Connection connection = connector.connect(replica);
+            if (!unavailableUntil.isEmpty()) {
+                unavailableUntil.remove(replica);
+            }
+            return connection;
+        } catch (SQLException ex) {
+            logger.warn("Replica unavailable, reading from the primary for the next {}: {}", retryDelay, ex.getMessage());
+            unavailableUntil.put(replica, System.nanoTime() + retryDelay.toNanos());
+            return connector.connect(primary);
+        }
+    }
+
+    // Null if every replica failed within the retry delay
+    DataSource pick() {
+        // Rotating start, so ties under LEAST_BUSY are spread as well
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        long now = System.nanoTime();
+        DataSource least = null;
+        int leastBusy = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            DataSource replica = replicas.get((start + i) % replicas.size());
+            if (!available(replica, now)) {
+                continue;
+            }
+            if (balancing == Balancing.ROUND_ROBIN) {
+                return replica;
+            }
+            int busy = busy(replica);
+            if (busy < leastBusy) {
+                least = replica;
+                leastBusy = busy;
+            }
+        }
+        return least;
+    }
+
+    private boolean available(DataSource replica, long now) {
+        Long until = unavailableUntil.get(replica);
+        return until == null || until - now <= 0;
+    }
+
+    // Connections in use plus requests queued for one; 0 for a pool that has not started yet
+    private static int busy(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null) {
+                return pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+            }
+        }
+        return 0;
+    }
+}
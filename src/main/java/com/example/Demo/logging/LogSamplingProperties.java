@@ -0,0 +1,51 @@
+package com.example.Demo.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+//logging.sampling.*: share of requests whose routine log lines are kept, per controller method
+@ConfigurationProperties(prefix = "logging.sampling")
+public class LogSamplingProperties {
+
+    /**
+     * Rate for controller methods without an entry in {@link #rates}, from 0.0 (none) to 1.0 (all).
+     */
+    private double defaultRate = 1.0;
+
+    /**
+     * Rates by controller method name, e.g. getAllEntities=0.01.
+     */
+    private Map<String, Double> rates = new HashMap<>();
+
+    /**
+     * Requests slower than this are always logged, sampled or not.
+     */
+    private Duration slowRequestThreshold = Duration.ofMillis(500);
+
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+
+    public void setDefaultRate(double defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    public Map<String, Double> getRates() {
+        return rates;
+    }
+
+    public void setRates(Map<String, Double> rates) {
+        this.rates = rates;
+    }
+
+    public Duration getSlowRequestThreshold() {
+        return slowRequestThreshold;
+    }
+
+    public void setSlowRequestThreshold(Duration slowRequestThreshold) {
+        this.slowRequestThreshold = slowRequestThreshold;
+    }
+}
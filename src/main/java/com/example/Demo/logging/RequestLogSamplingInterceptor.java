@@ -0,0 +1,70 @@
+package com.example.Demo.logging;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides once per request whether its routine log lines are kept, using the rate configured for
+ * the controller method, and marks the decision in the MDC for {@link SampledLogTurboFilter}.
+ * Slow and failed requests get a WARN summary line, so they are logged even when not sampled.
+ */
+public class RequestLogSamplingInterceptor implements AsyncHandlerInterceptor {
+
+    static final String MDC_KEY = "sampled";
+
+    static final String NOT_SAMPLED = "false";
+
+    private static final String START_ATTRIBUTE = RequestLogSamplingInterceptor.class.getName() + ".start";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLogSamplingInterceptor.class);
+
+    private final LogSamplingProperties properties;
+
+    private final long slowRequestNanos;
+
+    public RequestLogSamplingInterceptor(LogSamplingProperties properties) {
+        this.properties = properties;
+        this.slowRequestNanos = properties.getSlowRequestThreshold().toNanos();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        double rate = properties.getDefaultRate();
+        if (handler instanceof HandlerMethod handlerMethod) {
+            rate = properties.getRates().getOrDefault(handlerMethod.getMethod().getName(), rate);
+        }
+        boolean sampled = rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+        MDC.put(MDC_KEY, sampled ? "true" : NOT_SAMPLED);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The request thread is released; the async part is not sampled
+        MDC.remove(MDC_KEY);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        MDC.remove(MDC_KEY);
+        if (!(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        int status = response.getStatus();
+        if (elapsed >= slowRequestNanos || status >= 500 || ex != null) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            logger.warn("{} {} completed with status {} in {} ms", request.getMethod(),
+                    pattern == null ? request.getRequestURI() : pattern, status, elapsed / 1_000_000, ex);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.Demo.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Drops INFO and lower events on the thread of a request that was not sampled (see
+ * {@link RequestLogSamplingInterceptor}). It runs before the event is created, so the message
+ * and its arguments are never formatted. WARN and ERROR events always pass.
+ */
+public class SampledLogTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return RequestLogSamplingInterceptor.NOT_SAMPLED.equals(MDC.get(RequestLogSamplingInterceptor.MDC_KEY))
+                ? FilterReply.DENY
+                : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.model.dto.BulkOperationDTO;
+
+import java.util.List;
+
+public class BulkResponse {
+
+    private boolean errors;
+
+    private List<Item> items;
+
+    public BulkResponse() {
+    }
+
+    public BulkResponse(List<Item> items) {
+        this.items = items;
+        this.errors = items.stream().anyMatch(item -> item.getStatus() >= 400);
+    }
+
+    public boolean isErrors() {
+        return errors;
+    }
+
+    public void setErrors(boolean errors) {
+        this.errors = errors;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    /**
+     * Outcome of a single operation, in the same position as in the request.
+     */
+    public static class Item {
+
+        private BulkOperationDTO.Operation op;
+
+        private Long id;
+
+        private int status;
+
+        private String error;
+
+        public Item() {
+        }
+
+        public Item(BulkOperationDTO.Operation op, Long id, int status, String error) {
+            this.op = op;
+            this.id = id;
+            this.status = status;
+            this.error = error;
+        }
+
+        public BulkOperationDTO.Operation getOp() {
+            return op;
+        }
+
+        public void setOp(BulkOperationDTO.Operation op) {
+            this.op = op;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.Exception.ValidationException;
+
+/**
+ * How the listing endpoint computes totalPages.
+ */
+public enum CountMode {
+    /** Runs a COUNT(*) alongside every page (the historical behaviour). */
+    EXACT,
+    /** Serves the total from a short-lived cached count, refreshed at most once per TTL. */
+    CACHED,
+    /** Skips the total entirely; clients navigate with hasNext only. */
+    NONE;
+
+    public static CountMode from(String value) throws ValidationException {
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new ValidationException("Invalid count mode: " + value);
+    }
+}
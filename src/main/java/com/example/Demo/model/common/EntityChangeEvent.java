@@ -0,0 +1,23 @@
+package com.example.Demo.model.common;
+
+import java.time.Instant;
+
+/**
+ * A committed change to one entity, published to the /entities/changes feed. It names the entity
+ * only; subscribers that need the new state fetch it, with If-None-Match when they hold a copy.
+ * @param change What happened to the entity.
+ * @param entityId The ID of the entity.
+ * @param at When the change was committed.
+ */
+public record EntityChangeEvent(Change change, Long entityId, Instant at) {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static EntityChangeEvent of(Change change, Long entityId) {
+        return new EntityChangeEvent(change, entityId, Instant.now());
+    }
+}
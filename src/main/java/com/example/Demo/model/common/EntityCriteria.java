@@ -0,0 +1,135 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.dao.Entity;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Filters of the entity listing. Every filter that is set is ANDed with the others;
+ * date bounds are inclusive.
+ */
+public class EntityCriteria {
+
+    private Entity.EntityType entityType;
+
+    private String name;
+
+    private LocalDate createdFrom;
+
+    private LocalDate createdTo;
+
+    private LocalDate updatedFrom;
+
+    private LocalDate updatedTo;
+
+    public EntityCriteria() {
+    }
+
+    public EntityCriteria(Entity.EntityType entityType, String name) {
+        this.entityType = entityType;
+        this.name = name;
+    }
+
+    /**
+     * Parses the entityType request parameter.
+     * @param entityType The parameter value, may be null or empty.
+     * @return The entity type, or null if not set.
+     * @throws ValidationException If the value is not a known entity type.
+     */
+    public static Entity.EntityType parseEntityType(String entityType) throws ValidationException {
+        if (entityType == null || entityType.isEmpty()) {
+            return null;
+        }
+        try {
+            return Entity.EntityType.valueOf(entityType);
+        } catch (IllegalArgumentException ex) {
+            throw new ValidationException("Invalid entity type: " + entityType);
+        }
+    }
+
+    public Entity.EntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(Entity.EntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDate getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDate createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDate getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDate createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    public LocalDate getUpdatedFrom() {
+        return updatedFrom;
+    }
+
+    public void setUpdatedFrom(LocalDate updatedFrom) {
+        this.updatedFrom = updatedFrom;
+    }
+
+    public LocalDate getUpdatedTo() {
+        return updatedTo;
+    }
+
+    public void setUpdatedTo(LocalDate updatedTo) {
+        this.updatedTo = updatedTo;
+    }
+
+    /**
+     * @return True when no filter other than the entity type is set, so per-type counts answer the total.
+     */
+    public boolean hasOnlyTypeFilter() {
+        return (name == null || name.isEmpty()) && createdFrom == null && createdTo == null
+                && updatedFrom == null && updatedTo == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntityCriteria that)) {
+            return false;
+        }
+        return entityType == that.entityType
+                && Objects.equals(name, that.name)
+                && Objects.equals(createdFrom, that.createdFrom)
+                && Objects.equals(createdTo, that.createdTo)
+                && Objects.equals(updatedFrom, that.updatedFrom)
+                && Objects.equals(updatedTo, that.updatedTo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entityType, name, createdFrom, createdTo, updatedFrom, updatedTo);
+    }
+
+    @Override
+    public String toString() {
+        return "type=" + entityType + ",name=" + name
+                + ",created=" + createdFrom + ".." + createdTo
+                + ",updated=" + updatedFrom + ".." + updatedTo;
+    }
+}
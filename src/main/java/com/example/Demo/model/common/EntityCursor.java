@@ -0,0 +1,99 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.dao.Entity;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Opaque keyset cursor for the entity listing. It remembers the sort key, the direction and
+ * the (sortKey, entityId) pair of the last row a client has seen, so the next page can be
+ * fetched with an index range scan instead of an OFFSET.
+ */
+public class EntityCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+
+    private final Sort.Direction direction;
+
+    private final LocalDate sortValue;
+
+    private final Long entityId;
+
+    public EntityCursor(String sortBy, Sort.Direction direction, LocalDate sortValue, Long entityId) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.sortValue = sortValue;
+        this.entityId = entityId;
+    }
+
+    /**
+     * Builds the cursor pointing right after the given entity.
+     * @param sortBy The sort key of the listing (createdAt or updatedAt).
+     * @param direction The sort direction of the listing.
+     * @param entity The last entity of the current page.
+     * @return The cursor for the next page.
+     */
+    public static EntityCursor after(String sortBy, Sort.Direction direction, Entity entity) {
+        LocalDate sortValue = "updatedAt".equals(sortBy) ? entity.getUpdatedAt() : entity.getCreatedAt();
+        return new EntityCursor(sortBy, direction, sortValue, entity.getEntityId());
+    }
+
+    /**
+     * Builds the cursor pointing right after a row of a sparse listing.
+     * @param sortBy The sort key of the listing (createdAt or updatedAt).
+     * @param direction The sort direction of the listing.
+     * @param row The last row of the current page; it must contain the sort key and entityId.
+     * @return The cursor for the next page.
+     */
+    public static EntityCursor after(String sortBy, Sort.Direction direction, Map<String, Object> row) {
+        return new EntityCursor(sortBy, direction, (LocalDate) row.get(sortBy), (Long) row.get("entityId"));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     * @param token The opaque cursor sent by the client.
+     * @return The decoded cursor.
+     * @throws ValidationException If the token is malformed.
+     */
+    public static EntityCursor decode(String token) throws ValidationException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new ValidationException("Invalid cursor: " + token);
+            }
+            return new EntityCursor(parts[0], Sort.Direction.valueOf(parts[1]), LocalDate.parse(parts[2]), Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new ValidationException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + direction + SEPARATOR + sortValue + SEPARATOR + entityId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public LocalDate getSortValue() {
+        return sortValue;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+}
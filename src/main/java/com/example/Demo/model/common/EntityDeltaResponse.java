@@ -0,0 +1,62 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.model.dao.Entity;
+
+import java.util.List;
+
+public class EntityDeltaResponse {
+
+    // Entities created or updated since the token, in the order of their last change
+    private List<Entity> changed;
+
+    // Ids of the entities deleted since the token
+    private List<Long> deleted;
+
+    // Pass as since on the next call
+    private String nextToken;
+
+    // More changes are ready right away; otherwise poll again later with nextToken
+    private boolean hasMore;
+
+    public EntityDeltaResponse() {
+    }
+
+    public EntityDeltaResponse(List<Entity> changed, List<Long> deleted, String nextToken, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+
+    public List<Entity> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<Entity> changed) {
+        this.changed = changed;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
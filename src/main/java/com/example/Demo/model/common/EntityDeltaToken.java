@@ -0,0 +1,63 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.Exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque position in the entity change sequence for the delta sync. It holds the highest
+ * changeSeq the client has caught up to, and when the token was issued, so a token older
+ * than the tombstone retention can be refused instead of silently missing deletes.
+ */
+public class EntityDeltaToken {
+
+    private static final String SEPARATOR = "|";
+
+    private final long changeSeq;
+
+    private final Instant issuedAt;
+
+    public EntityDeltaToken(long changeSeq, Instant issuedAt) {
+        this.changeSeq = changeSeq;
+        this.issuedAt = issuedAt;
+    }
+
+    /**
+     * Decodes a token previously produced by {@link #encode()}.
+     * @param token The opaque token sent by the client.
+     * @return The decoded token.
+     * @throws ValidationException If the token is malformed.
+     */
+    public static EntityDeltaToken decode(String token) throws ValidationException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 2) {
+                throw new ValidationException("Invalid delta token: " + token);
+            }
+            long changeSeq = Long.parseLong(parts[0]);
+            if (changeSeq < 0) {
+                throw new ValidationException("Invalid delta token: " + token);
+            }
+            return new EntityDeltaToken(changeSeq, Instant.ofEpochMilli(Long.parseLong(parts[1])));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new ValidationException("Invalid delta token: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = changeSeq + SEPARATOR + issuedAt.toEpochMilli();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.dao.Entity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse fieldset requested with fields=, e.g. fields=entityId,name. Only these attributes are
+ * selected from the database and serialized; entityId is always included.
+ */
+public final class EntityFields {
+
+    // Persistent attributes of Entity that can be requested
+    private static final List<String> ATTRIBUTES = List.of(
+            "entityId", "name", "description", "entityType", "createdAt", "updatedAt", "version", "modifiedAt");
+
+    private final List<String> names;
+
+    private EntityFields(List<String> names) {
+        this.names = List.copyOf(names);
+    }
+
+    /**
+     * Parses the fields request parameter.
+     * @param fields Comma-separated attribute names.
+     * @return The fieldset, or null when the parameter is absent or empty (the full entity).
+     * @throws ValidationException If an attribute name is unknown.
+     */
+    public static EntityFields parse(String fields) throws ValidationException {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        names.add("entityId");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || names.contains(name)) {
+                continue;
+            }
+            if (!ATTRIBUTES.contains(name)) {
+                throw new ValidationException("Invalid field: " + name + "; allowed fields are " + String.join(", ", ATTRIBUTES));
+            }
+            names.add(name);
+        }
+        return new EntityFields(names);
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @param extra Attributes the query needs besides the requested ones, e.g. a cursor's sort key.
+     * @return The attributes to select.
+     */
+    public List<String> columns(String... extra) {
+        List<String> columns = new ArrayList<>(names);
+        for (String name : extra) {
+            if (!columns.contains(name)) {
+                columns.add(name);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * @param row A selected row, possibly with extra columns.
+     * @return The row restricted to the requested attributes.
+     */
+    public Map<String, Object> project(Map<String, Object> row) {
+        if (row.size() == names.size()) {
+            return row;
+        }
+        Map<String, Object> projected = new LinkedHashMap<>();
+        names.forEach(name -> projected.put(name, row.get(name)));
+        return projected;
+    }
+
+    /**
+     * @param entity An already loaded entity, e.g. from the near-cache.
+     * @return The requested attributes of the entity.
+     */
+    public Map<String, Object> of(Entity entity) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        names.forEach(name -> row.put(name, valueOf(entity, name)));
+        return row;
+    }
+
+    private static Object valueOf(Entity entity, String name) {
+        return switch (name) {
+            case "entityId" -> entity.getEntityId();
+            case "name" -> entity.getName();
+            case "description" -> entity.getDescription();
+            case "entityType" -> entity.getEntityType();
+            case "createdAt" -> entity.getCreatedAt();
+            case "updatedAt" -> entity.getUpdatedAt();
+            case "version" -> entity.getVersion();
+            case "modifiedAt" -> entity.getModifiedAt();
+            default -> throw new IllegalArgumentException("Unknown field: " + name);
+        };
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof EntityFields fields && names.equals(fields.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return names.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", names);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.model.dao.Entity;
+
+import java.time.Instant;
+import java.util.Map;
+
+public class EntityStatsResponse {
+
+    private Map<Entity.EntityType, Long> counts;
+
+    // Entities stored without a type
+    private long untyped;
+
+    private long total;
+
+    // Last time the counters were checked against the database; null before the first check
+    private Instant reconciledAt;
+
+    public EntityStatsResponse() {
+    }
+
+    public EntityStatsResponse(Map<Entity.EntityType, Long> counts, long untyped, long total, Instant reconciledAt) {
+        this.counts = counts;
+        this.untyped = untyped;
+        this.total = total;
+        this.reconciledAt = reconciledAt;
+    }
+
+    public Map<Entity.EntityType, Long> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(Map<Entity.EntityType, Long> counts) {
+        this.counts = counts;
+    }
+
+    public long getUntyped() {
+        return untyped;
+    }
+
+    public void setUntyped(long untyped) {
+        this.untyped = untyped;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Instant getReconciledAt() {
+        return reconciledAt;
+    }
+
+    public void setReconciledAt(Instant reconciledAt) {
+        this.reconciledAt = reconciledAt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.model.dao.Entity;
+
+/**
+ * Number of entities of one type, as counted by the database.
+ * @param entityType The type; null for entities stored without one.
+ * @param count The number of entities.
+ */
+public record EntityTypeCount(Entity.EntityType entityType, long count) {
+}
@@ -0,0 +1,50 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.dao.Entity;
+
+import java.time.Instant;
+
+/**
+ * Version and modification time of an entity: all a conditional GET needs to decide on a 304.
+ * @param version The @Version counter, used as the ETag.
+ * @param modifiedAt The time of the last change, used as Last-Modified; may be null for rows
+ *                   written before the column existed.
+ */
+public record EntityVersion(Long version, Instant modifiedAt) {
+
+    public static EntityVersion of(Entity entity) {
+        return new EntityVersion(entity.getVersion(), entity.getModifiedAt());
+    }
+
+    /**
+     * Reads the version a conditional update expects from its If-Match header.
+     * @param ifMatch The header value, e.g. "3" including the quotes.
+     * @return The expected version, or null when the header is absent or "*" (update unconditionally).
+     * @throws ValidationException If the header is not a single strong ETag issued by this API.
+     */
+    public static Long fromIfMatch(String ifMatch) throws ValidationException {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Reported below
+            }
+        }
+        throw new ValidationException("If-Match must be a single ETag of the entity, e.g. \"3\"");
+    }
+
+    // Unquoted; Spring adds the quotes
+    public String eTag() {
+        return String.valueOf(version == null ? 0L : version);
+    }
+
+    // -1 tells WebRequest.checkNotModified to ignore If-Modified-Since
+    public long lastModifiedMillis() {
+        return modifiedAt == null ? -1 : modifiedAt.toEpochMilli();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.Exception.ValidationException;
+import org.springframework.http.MediaType;
+
+/**
+ * Output formats of the streaming export.
+ */
+public enum ExportFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static ExportFormat from(String value) throws ValidationException {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new ValidationException("Invalid export format: " + value);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.Demo.model.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class PageResponse {
@@ -10,7 +12,13 @@ public class PageResponse {
 
     private int pageSize = 10;
 
-    private int totalPages = 0;
+    // Null when the listing was requested with count=none
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages = 0;
+
+    private boolean hasNext;
+
+    private String nextCursor;
 
     public PageResponse() {
     }
@@ -46,11 +54,27 @@ public class PageResponse {
         this.pageSize = pageSize;
     }
 
-    public int getTotalPages() {
+    public Integer getTotalPages() {
         return totalPages;
     }
 
-    public void setTotalPages(int totalPages) {
+    public void setTotalPages(Integer totalPages) {
         this.totalPages = totalPages;
     }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.Demo.model.common;
+
+import com.example.Demo.model.dao.Entity;
+
+/**
+ * The type of the row an UPDATE or DELETE changed, as the statement itself found it, so the
+ * per-type counters can follow type changes and deletes without a read before the write.
+ * @param entityType The type before the write, null for an entity without a type.
+ */
+public record ReplacedType(Entity.EntityType entityType) {
+}
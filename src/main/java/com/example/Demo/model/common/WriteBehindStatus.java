@@ -0,0 +1,55 @@
+package com.example.Demo.model.common;
+
+/**
+ * Progress of an entity accepted for write-behind creation, served at its status URL.
+ */
+public class WriteBehindStatus {
+
+    public enum State {
+        // Accepted and journaled, not yet inserted
+        PENDING,
+        // Inserted; the entity can be fetched by its id
+        CREATED,
+        // Rejected by the database, e.g. a constraint violation; it will not be retried
+        FAILED
+    }
+
+    private Long id;
+
+    private State state;
+
+    private String error;
+
+    public WriteBehindStatus() {
+    }
+
+    public WriteBehindStatus(Long id, State state, String error) {
+        this.id = id;
+        this.state = state;
+        this.error = error;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.Demo.model.dao;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Arrays;
+import java.util.List;
+
+@jakarta.persistence.Entity
+@Table(name = "app_users")
+public class AppUser {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long userId;
+
+    @Column(nullable = false, unique = true, length = 50)
+    private String username;
+
+    // Encoded with the DelegatingPasswordEncoder, e.g. "{bcrypt}$2a$10$..."
+    @JsonIgnore
+    @Column(nullable = false)
+    private String password;
+
+    // Comma-separated role names without the ROLE_ prefix, e.g. "ADMIN,USER"
+    @Column(nullable = false)
+    private String roles;
+
+    // Incremented on every change of the password or roles; cached lookups and authentications
+    // are only used while it is unchanged, so a change on one node is seen by all of them
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long credentialsVersion;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getRoles() {
+        return roles;
+    }
+
+    public void setRoles(String roles) {
+        this.roles = roles;
+    }
+
+    public Long getCredentialsVersion() {
+        return credentialsVersion;
+    }
+
+    public void setCredentialsVersion(Long credentialsVersion) {
+        this.credentialsVersion = credentialsVersion;
+    }
+
+    public List<String> roleList() {
+        return Arrays.stream(roles.split(",")).map(String::trim).filter(role -> !role.isEmpty()).toList();
+    }
+}
@@ -1,17 +1,31 @@
 package com.example.Demo.model.dao;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @jakarta.persistence.Entity
-@Table(name = "entities")
+@Table(name = "entities", indexes = {
+        // Back the keyset pagination predicate (sortKey, entityId) > (?, ?)
+        @Index(name = "idx_entities_created_at_id", columnList = "createdAt, entityId"),
+        @Index(name = "idx_entities_updated_at_id", columnList = "updatedAt, entityId"),
+        // Type filter combined with a date range and/or sort on the same column
+        @Index(name = "idx_entities_type_created_at_id", columnList = "entityType, createdAt, entityId"),
+        @Index(name = "idx_entities_type_updated_at_id", columnList = "entityType, updatedAt, entityId"),
+        // Range scans of the delta sync: changeSeq > since
+        @Index(name = "idx_entities_change_seq", columnList = "changeSeq")
+})
 public class Entity {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    // Pooled allocation: one sequence call per 50 inserts, which keeps JDBC insert batching effective
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entities_seq")
+    @SequenceGenerator(name = "entities_seq", sequenceName = "entities_seq", allocationSize = 50)
     private Long entityId;
     @NotBlank(message = "name cannot be blank")
     @Size(min = 2, max = 50, message = "First name must be between 2 and 50 characters")
@@ -27,6 +41,22 @@ public class Entity {
     private LocalDate createdAt;
     private LocalDate updatedAt;
 
+    // Incremented on every update; exposed as the ETag of the entity
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // Exact time of the last change, unlike the date-only updatedAt; exposed as Last-Modified
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Instant modifiedAt;
+
+    // Position of the last change in entity_change_seq, shared with the tombstones; drawn by the
+    // database on insert (column default) and by every UPDATE statement, so never set here
+    @JsonIgnore
+    @ColumnDefault("nextval('entity_change_seq')")
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
 
     public EntityType getEntityType() {
         return entityType;
@@ -39,11 +69,13 @@ public class Entity {
     @PrePersist
     protected void onCreate() {
         updatedAt = createdAt = LocalDate.now();
+        modifiedAt = Instant.now();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDate.now();
+        modifiedAt = Instant.now();
     }
 
     public Long getEntityId() {
@@ -85,6 +117,26 @@ public class Entity {
     public void setUpdatedAt(LocalDate updatedAt) {
         this.updatedAt = updatedAt;
     }
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getModifiedAt() {
+        return modifiedAt;
+    }
+
+    public void setModifiedAt(Instant modifiedAt) {
+        this.modifiedAt = modifiedAt;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
     public enum EntityType {
         USER,
         PRODUCT,
@@ -0,0 +1,46 @@
+package com.example.Demo.model.dao;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Marks a deleted entity for the delta sync, which cannot find the row itself any more
+@jakarta.persistence.Entity
+@Table(name = "entity_tombstones", indexes = {
+        // Purging of the tombstones past the retention
+        @Index(name = "idx_entity_tombstones_deleted_at", columnList = "deletedAt")
+})
+public class EntityTombstone {
+    @Id
+    // One value per call and no block per node: positions must follow the order the writes happened in.
+    // Entity.changeSeq draws from the same sequence.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entity_change_seq")
+    @SequenceGenerator(name = "entity_change_seq", sequenceName = "entity_change_seq", allocationSize = 1)
+    private Long changeSeq;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    protected EntityTombstone() {
+    }
+
+    public EntityTombstone(Long entityId) {
+        this.entityId = entityId;
+        this.deletedAt = Instant.now();
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.Demo.model.dto;
+
+public class BulkOperationDTO {
+
+    private Operation op;
+
+    // Target of UPDATE and DELETE, ignored for CREATE
+    private Long id;
+
+    // New details for CREATE and UPDATE, ignored for DELETE
+    private EntityDTO entity;
+
+    public BulkOperationDTO() {
+    }
+
+    public BulkOperationDTO(Operation op, Long id, EntityDTO entity) {
+        this.op = op;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    public Operation getOp() {
+        return op;
+    }
+
+    public void setOp(Operation op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public EntityDTO getEntity() {
+        return entity;
+    }
+
+    public void setEntity(EntityDTO entity) {
+        this.entity = entity;
+    }
+
+    public enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.Demo.model.dto;
+
+import com.example.Demo.model.dao.Entity;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Partial update of an entity; null fields are left unchanged. Fields that are present follow
+ * the same rules as in EntityDTO, so a PATCH cannot store what POST and PUT reject.
+ */
+public class EntityPatchDTO {
+
+    // @NotBlank when present: at least one non-whitespace character
+    @Pattern(regexp = "(?s).*\\S.*", message = "Name cannot be blank")
+    @Size(min = 2, max = 50, message = "Name must be between 2 and 50 characters")
+    private String name;
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Description cannot be blank")
+    @Size(min = 1, max = 50, message = "Description must be between 1 and 50 characters")
+    private String description;
+
+    private Entity.EntityType entityType;
+
+    public EntityPatchDTO() {
+    }
+
+    public EntityPatchDTO(String name, String description, Entity.EntityType entityType) {
+        this.name = name;
+        this.description = description;
+        this.entityType = entityType;
+    }
+
+    public boolean isEmpty() {
+        return name == null && description == null && entityType == null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Entity.EntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(Entity.EntityType entityType) {
+        this.entityType = entityType;
+    }
+}
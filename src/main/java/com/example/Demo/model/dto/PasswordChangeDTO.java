@@ -0,0 +1,22 @@
+package com.example.Demo.model.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * New password of a user, in clear text; it is stored encoded.
+ */
+public class PasswordChangeDTO {
+
+    @NotBlank(message = "password cannot be blank")
+    @Size(min = 8, max = 72, message = "Password must be between 8 and 72 characters")
+    private String password;
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+}
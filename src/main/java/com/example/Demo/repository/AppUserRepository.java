@@ -0,0 +1,19 @@
+package com.example.Demo.repository;
+
+import com.example.Demo.model.dao.AppUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+//Repository class for the user store
+@Repository
+public interface AppUserRepository extends JpaRepository<AppUser, Long> {
+    Optional<AppUser> findByUsername(String username);
+
+    // One column through the unique index on username, checked by the user and authentication caches
+    @Query("select u.credentialsVersion from AppUser u where u.username = :username")
+    Optional<Long> findCredentialsVersionByUsername(@Param("username") String username);
+}
@@ -1,15 +1,48 @@
 package com.example.Demo.repository;
 
+import com.example.Demo.model.common.EntityTypeCount;
+import com.example.Demo.model.common.EntityVersion;
 import com.example.Demo.model.dao.Entity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 //Repository class
 @Repository
-public interface EntityRepository extends JpaRepository<Entity,Long> {
-    Page<Entity> findByEntityType(Entity.EntityType valueOf, PageRequest pageRequest);
+public interface EntityRepository extends JpaRepository<Entity,Long>, JpaSpecificationExecutor<Entity>, EntityRepositoryCustom {
+    // Server-side cursor for full-table export; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Entity e order by e.entityId")
+    Stream<Entity> streamAll();
+
+    // Two columns by primary key, for conditional GETs that usually end in a 304
+    @Query("select new com.example.Demo.model.common.EntityVersion(e.version, e.modifiedAt) from Entity e where e.entityId = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+
+    // Which of the given ids are already stored, e.g. when replaying the write-behind journal
+    @Query("select e.entityId from Entity e where e.entityId in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Reconciles the per-type counters
+    @Query("select new com.example.Demo.model.common.EntityTypeCount(e.entityType, count(e)) from Entity e group by e.entityType")
+    List<EntityTypeCount> countByEntityType();
 
-    Page<Entity> findByNameContainingIgnoreCase(String name, PageRequest pageRequest);
+    // Delta sync: a range scan of idx_entities_change_seq
+    @Query("select e from Entity e where e.changeSeq > :after and e.changeSeq <= :ceiling order by e.changeSeq")
+    List<Entity> findChanged(@Param("after") long after, @Param("ceiling") long ceiling, Limit limit);
 }
@@ -0,0 +1,31 @@
+package com.example.Demo.repository;
+
+import com.example.Demo.model.common.ReplacedType;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.model.dto.EntityPatchDTO;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+//Statements Spring Data cannot derive, implemented in EntityRepositoryImpl
+public interface EntityRepositoryCustom {
+    Optional<ReplacedType> update(Long id, EntityDTO entity, Long expectedVersion);
+
+    Optional<ReplacedType> patch(Long id, EntityPatchDTO patch, Long expectedVersion);
+
+    List<Map<String, Object>> findFields(Specification<Entity> specification, List<String> columns, Sort sort, long offset, int limit);
+
+    int markChanged(Collection<Long> ids);
+
+    Optional<ReplacedType> removeById(Long id);
+
+    int removeAllById(Collection<Long> ids);
+
+    List<Long> findIdsToDelete(Long afterId, Entity.EntityType entityType, LocalDate updatedBefore, int limit);
+}
@@ -0,0 +1,88 @@
+package com.example.Demo.repository;
+
+import com.example.Demo.model.common.EntityCriteria;
+import com.example.Demo.model.common.EntityCursor;
+import com.example.Demo.model.dao.Entity;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+//Specifications for the entity listing
+public final class EntitySpecifications {
+
+    private EntitySpecifications() {
+    }
+
+    /**
+     * Builds the conjunction of every filter set on the criteria. Only present filters become
+     * predicates, so each combination maps onto one of the composite indexes declared on Entity.
+     * @param criteria The listing filters.
+     * @return The specification, matching everything when no filter is set.
+     */
+    public static Specification<Entity> matching(EntityCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getEntityType() != null) {
+                predicates.add(cb.equal(root.get("entityType"), criteria.getEntityType()));
+            }
+            if (criteria.getName() != null && !criteria.getName().isEmpty()) {
+                // Same upper(name) like expression as idx_entities_name_trgm (schema-postgresql.sql)
+                predicates.add(cb.like(cb.upper(root.get("name")), containsPattern(criteria.getName()), '\\'));
+            }
+            if (criteria.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), criteria.getCreatedFrom()));
+            }
+            if (criteria.getCreatedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), criteria.getCreatedTo()));
+            }
+            if (criteria.getUpdatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("updatedAt"), criteria.getUpdatedFrom()));
+            }
+            if (criteria.getUpdatedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("updatedAt"), criteria.getUpdatedTo()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Entity> hasId(Long id) {
+        return (root, query, cb) -> cb.equal(root.get("entityId"), id);
+    }
+
+    /**
+     * Keyset predicate for the page after a cursor: (sortKey, entityId) strictly beyond the
+     * cursor's pair in its direction. The OR on its own cannot start an index range scan, so it
+     * is ANDed with the redundant bound sortKey >= value (<= when descending), which becomes the
+     * start of the scan on (sortKey, entityId) and lets a deep page skip the rows before it.
+     * @param cursor The decoded cursor of the previous page.
+     * @return The specification continuing after the cursor.
+     */
+    public static Specification<Entity> after(EntityCursor cursor) {
+        return (root, query, cb) -> {
+            Path<LocalDate> sortKey = root.get(cursor.getSortBy());
+            Path<Long> entityId = root.get("entityId");
+            if (cursor.getDirection() == Sort.Direction.ASC) {
+                return cb.and(cb.greaterThanOrEqualTo(sortKey, cursor.getSortValue()),
+                        cb.or(cb.greaterThan(sortKey, cursor.getSortValue()),
+                                cb.and(cb.equal(sortKey, cursor.getSortValue()), cb.greaterThan(entityId, cursor.getEntityId()))));
+            }
+            return cb.and(cb.lessThanOrEqualTo(sortKey, cursor.getSortValue()),
+                    cb.or(cb.lessThan(sortKey, cursor.getSortValue()),
+                            cb.and(cb.equal(sortKey, cursor.getSortValue()), cb.lessThan(entityId, cursor.getEntityId()))));
+        };
+    }
+
+    static String containsPattern(String term) {
+        String escaped = term.toUpperCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.Demo.repository;
+
+import com.example.Demo.model.dao.EntityTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+//Repository class for the tombstones of deleted entities
+@Repository
+public interface EntityTombstoneRepository extends JpaRepository<EntityTombstone, Long> {
+    // Delta sync: a range scan of the primary key
+    @Query("select t from EntityTombstone t where t.changeSeq > :after and t.changeSeq <= :ceiling order by t.changeSeq")
+    List<EntityTombstone> findDeleted(@Param("after") long after, @Param("ceiling") long ceiling, Limit limit);
+
+    // Tombstones past the retention; no delta token old enough to need them is accepted any more
+    @Modifying
+    @Transactional
+    @Query("delete from EntityTombstone t where t.deletedAt < :cutoff")
+    int purgeDeletedBefore(@Param("cutoff") Instant cutoff);
+}
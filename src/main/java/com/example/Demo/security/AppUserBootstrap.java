@@ -0,0 +1,59 @@
+package com.example.Demo.security;
+
+import com.example.Demo.model.dao.AppUser;
+import com.example.Demo.repository.AppUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the default "admin" and "user" accounts when the user store is empty, and the
+ * "metrics" account of the Prometheus scraper when its password is configured.
+ */
+@Component
+public class AppUserBootstrap implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppUserBootstrap.class);
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${security.bootstrap.admin-password:admin123}")
+    private String adminPassword;
+
+    @Value("${security.bootstrap.user-password:user123}")
+    private String userPassword;
+
+    // No default: without it only users an admin has given the METRICS role can read /actuator/prometheus
+    @Value("${security.bootstrap.metrics-password:}")
+    private String metricsPassword;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (appUserRepository.count() == 0) {
+            appUserRepository.save(user("admin", adminPassword, "ADMIN"));
+            appUserRepository.save(user("user", userPassword, "USER"));
+            logger.info("Created the default users admin and user");
+        }
+        // Also on an existing user store, so the scraper can be added to a running deployment
+        if (!metricsPassword.isBlank() && appUserRepository.findByUsername("metrics").isEmpty()) {
+            appUserRepository.save(user("metrics", metricsPassword, "METRICS"));
+            logger.info("Created the metrics user");
+        }
+    }
+
+    private AppUser user(String username, String password, String roles) {
+        AppUser user = new AppUser();
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode(password));
+        user.setRoles(roles);
+        return user;
+    }
+}
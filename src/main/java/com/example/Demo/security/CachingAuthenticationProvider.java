@@ -0,0 +1,120 @@
+package com.example.Demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Remembers successful username/password authentications for a short TTL, so repeated requests
+ * with the same credentials skip the password hash verification of the delegate.
+ * The credentials are kept only as an HMAC-SHA256 digest under a key generated at startup,
+ * which never leaves the process; the digest of the presented credentials must match in
+ * constant time. Failed attempts are never cached and do not evict a cached success.
+ * Each entry remembers the credentials version of the user when it was verified and is only
+ * used while the current version, read once per request, is still the same: a password or role
+ * change on any node is seen by the next request on every node.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider, MeterBinder {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private record CachedAuthentication(byte[] digest, List<GrantedAuthority> authorities, long credentialsVersion) {
+    }
+
+    private final AuthenticationProvider delegate;
+
+    // Current credentials version of a user, empty if it does not exist
+    private final Function<String, Optional<Long>> credentialsVersions;
+
+    private final Cache<String, CachedAuthentication> cache;
+
+    private final SecretKeySpec key;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate,
+                                         Function<String, Optional<Long>> credentialsVersions,
+                                         long maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.credentialsVersions = credentialsVersions;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+        String username = authentication.getName();
+        byte[] digest = digest(username, credentials.toString());
+        // Read before the delegate: a change racing with the verification leaves the entry stale
+        Optional<Long> version = credentialsVersions.apply(username);
+        CachedAuthentication cached = cache.getIfPresent(username);
+        if (cached != null && version.isPresent() && cached.credentialsVersion() == version.get()
+                && MessageDigest.isEqual(cached.digest(), digest)) {
+            User principal = new User(username, "", cached.authorities());
+            return UsernamePasswordAuthenticationToken.authenticated(principal, null, cached.authorities());
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated() && version.isPresent()) {
+            cache.put(username, new CachedAuthentication(digest, List.copyOf(result.getAuthorities()), version.get()));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    /**
+     * Forgets the cached authentication of a user; the next request verifies the password again.
+     * @param username The user whose password or roles changed.
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "authentications");
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available", ex);
+        }
+    }
+}
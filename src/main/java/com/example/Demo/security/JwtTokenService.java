@@ -0,0 +1,62 @@
+package com.example.Demo.security;
+
+import com.example.Demo.model.common.TokenResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Issues signed access tokens (HS256 JWT) carrying the subject and its roles. Any node holding
+ * the same key validates them without a session or a user lookup. Roles are fixed for the
+ * lifetime of a token, so a role change takes effect at the latest after security.jwt.ttl.
+ */
+@Component
+public class JwtTokenService {
+
+    public static final String ROLES_CLAIM = "roles";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    @Autowired
+    private JwtEncoder jwtEncoder;
+
+    @Value("${security.jwt.issuer:entity-service}")
+    private String issuer;
+
+    @Value("${security.jwt.ttl:15m}")
+    private Duration ttl;
+
+    /**
+     * @param authentication A successful authentication.
+     * @return The signed token and its lifetime in seconds.
+     */
+    public TokenResponse issue(Authentication authentication) {
+        Instant now = Instant.now();
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .map(authority -> authority.substring(ROLE_PREFIX.length()))
+                .toList();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(issuer)
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim(ROLES_CLAIM, roles)
+                .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        return new TokenResponse(token, "Bearer", ttl.toSeconds());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.Demo.service;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.dao.AppUser;
+
+import java.util.List;
+
+public interface AppUserService {
+    AppUser changePassword(String username, String password);
+
+    AppUser changeRoles(String username, List<String> roles) throws ValidationException;
+}
@@ -1,12 +1,51 @@
 package com.example.Demo.service;
+import com.example.Demo.datasource.ReadYourWrites;
+import com.example.Demo.model.dao.AppUser;
+import com.example.Demo.repository.AppUserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Database-backed user store. Lookups are cached for a short TTL so authentication does not
+ * load the user on every request. A cached user is only used while its credentials_version on
+ * the primary is unchanged, so a password or role change made on another node takes effect on
+ * the next request; {@link #evict(String)} also drops the user from the local cache at once.
+ */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, MeterBinder {
+
+    // Immutable snapshot: UserDetails handed to Spring Security get their credentials erased
+    private record StoredUser(String username, String password, List<String> roles, long credentialsVersion) {
+    }
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    private final Cache<String, StoredUser> cache;
+
+    public CustomUserDetailsService(@Value("${security.user-cache.maximum-size:10000}") long maximumSize,
+                                    @Value("${security.user-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
     /**
      * Auth class
      * @param username username to verify
@@ -15,19 +54,52 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Mock user data; replace with database fetching logic
-        if ("admin".equals(username)) {
-            return User.withUsername("admin")
-                    .password("{noop}password") // Use bcrypt for production
-                    .roles("ADMIN")
-                    .build();
-        } else if ("user".equals(username)) {
-            return User.withUsername("user")
-                    .password("{noop}password")
-                    .roles("USER")
-                    .build();
+        StoredUser stored = cache.getIfPresent(username);
+        if (stored == null || !credentialsVersion(username).equals(Optional.of(stored.credentialsVersion()))) {
+            stored = load(username);
+            if (stored == null) {
+                cache.invalidate(username);
+                throw new UsernameNotFoundException("User not found");
+            }
+            cache.put(username, stored);
         }
-        throw new UsernameNotFoundException("User not found");
+        return User.withUsername(stored.username())
+                .password(stored.password())
+                .roles(stored.roles().toArray(new String[0]))
+                .build();
+    }
+
+    /**
+     * Reads the credentials version of a user on the primary, as a replica may not have seen the
+     * latest change yet.
+     * @param username The user to look up.
+     * @return The current version, empty if no user has that name.
+     */
+    public Optional<Long> credentialsVersion(String username) {
+        try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+            return appUserRepository.findCredentialsVersionByUsername(username);
+        }
+    }
+
+    private StoredUser load(String username) {
+        try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+            return appUserRepository.findByUsername(username)
+                    .map(user -> new StoredUser(user.getUsername(), user.getPassword(), user.roleList(),
+                            user.getCredentialsVersion()))
+                    .orElse(null);
+        }
+    }
+
+    /**
+     * Drops the cached lookup of a user, so the next authentication reads the database.
+     * @param username The user whose password or roles changed.
+     */
+    public void evict(String username) {
+        cache.invalidate(username);
     }
-}
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.Demo.service;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.BulkResponse;
+import com.example.Demo.model.dto.BulkOperationDTO;
+
+import java.util.List;
+
+public interface EntityBulkService {
+    BulkResponse execute(List<BulkOperationDTO> operations) throws ValidationException;
+}
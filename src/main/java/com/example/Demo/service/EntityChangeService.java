@@ -0,0 +1,7 @@
+package com.example.Demo.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface EntityChangeService {
+    SseEmitter subscribe(String lastEventId);
+}
@@ -0,0 +1,8 @@
+package com.example.Demo.service;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.EntityDeltaResponse;
+
+public interface EntityDeltaService {
+    EntityDeltaResponse getDelta(String since, int limit) throws ValidationException;
+}
@@ -0,0 +1,10 @@
+package com.example.Demo.service;
+
+import com.example.Demo.model.common.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface EntityExportService {
+    long export(ExportFormat format, OutputStream outputStream) throws IOException;
+}
@@ -1,10 +1,19 @@
 package com.example.Demo.service;
 
 import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.CacheStatsResponse;
+import com.example.Demo.model.common.CountMode;
+import com.example.Demo.model.common.EntityCriteria;
+import com.example.Demo.model.common.EntityFields;
+import com.example.Demo.model.common.EntityStatsResponse;
+import com.example.Demo.model.common.EntityVersion;
 import com.example.Demo.model.common.PageResponse;
 import com.example.Demo.model.dao.Entity;
 import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.model.dto.EntityPatchDTO;
 
+import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
 
 public interface EntityService {
@@ -12,9 +21,23 @@ public interface EntityService {
 
     Optional<Entity> getEntity(Long id);
 
-    PageResponse getAllEntity(int pageNo, int pageSize, String name, String sortBy, String entityType);
+    Optional<EntityVersion> getEntityVersion(Long id);
 
-    void updateEntity(Long id, EntityDTO entityDTO);
+    Optional<Map<String, Object>> getEntityFields(Long id, EntityFields fields);
+
+    EntityStatsResponse getStats();
+
+    CacheStatsResponse getCacheStats();
+
+    PageResponse getAllEntity(EntityCriteria criteria, int pageNo, int pageSize, String sortBy, String direction, CountMode countMode, EntityFields fields);
+
+    PageResponse getAllEntityAfter(String after, EntityCriteria criteria, int pageSize, String sortBy, String direction, EntityFields fields) throws ValidationException;
+
+    void updateEntity(Long id, EntityDTO entityDTO, Long expectedVersion);
+
+    void patchEntity(Long id, EntityPatchDTO patchDTO, Long expectedVersion) throws ValidationException;
 
     void deleteEntityById(Long id);
+
+    long deleteEntities(String entityType, LocalDate updatedBefore) throws ValidationException;
 }
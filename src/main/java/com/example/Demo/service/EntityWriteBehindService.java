@@ -0,0 +1,15 @@
+package com.example.Demo.service;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.WriteBehindStatus;
+import com.example.Demo.model.dto.EntityDTO;
+
+import java.util.Optional;
+
+public interface EntityWriteBehindService {
+    boolean isEnabled();
+
+    WriteBehindStatus submit(EntityDTO entityDTO) throws ValidationException;
+
+    Optional<WriteBehindStatus> getStatus(Long id);
+}
@@ -0,0 +1,92 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.Exception.EntityNotFoundException;
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.datasource.ReadYourWrites;
+import com.example.Demo.model.dao.AppUser;
+import com.example.Demo.repository.AppUserRepository;
+import com.example.Demo.security.CachingAuthenticationProvider;
+import com.example.Demo.service.AppUserService;
+import com.example.Demo.service.CustomUserDetailsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+//user store service implementation class
+@Service
+public class AppUserServiceImpl implements AppUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppUserServiceImpl.class);
+
+    private static final Set<String> ROLES = Set.of("ADMIN", "USER", "METRICS");
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private CachingAuthenticationProvider authenticationProvider;
+
+    /**
+     * Stores a new password for the user and drops its cached lookup and authentications.
+     * @param username The user to update.
+     * @param password The new password in clear text; it is stored encoded.
+     * @return The updated user.
+     * @throws EntityNotFoundException If no user has that name.
+     */
+    @Override
+    public AppUser changePassword(String username, String password) {
+        logger.info("Changing password of user {}", username);
+        AppUser user = findUser(username);
+        user.setPassword(passwordEncoder.encode(password));
+        return saveAndInvalidate(user);
+    }
+
+    /**
+     * Replaces the roles of the user and drops its cached lookup and authentications.
+     * @param username The user to update.
+     * @param roles Role names without the ROLE_ prefix (ADMIN, USER, METRICS).
+     * @return The updated user.
+     * @throws ValidationException If the list is empty or names an unknown role.
+     * @throws EntityNotFoundException If no user has that name.
+     */
+    @Override
+    public AppUser changeRoles(String username, List<String> roles) throws ValidationException {
+        logger.info("Changing roles of user {} to {}", username, roles);
+        if (roles == null || roles.isEmpty()) {
+            throw new ValidationException("At least one role is required");
+        }
+        for (String role : roles) {
+            if (!ROLES.contains(role)) {
+                throw new ValidationException("Invalid role: " + role + ". Allowed values: " + ROLES);
+            }
+        }
+        AppUser user = findUser(username);
+        user.setRoles(String.join(",", roles));
+        return saveAndInvalidate(user);
+    }
+
+    // Read on the primary: the save checks the credentials version, which a replica may not have caught up with
+    private AppUser findUser(String username) {
+        try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+            return appUserRepository.findByUsername(username)
+                    .orElseThrow(() -> new EntityNotFoundException("User with name " + username + " not found"));
+        }
+    }
+
+    // Invalidated after the save has committed, so a concurrent lookup cannot re-cache the old row
+    private AppUser saveAndInvalidate(AppUser user) {
+        AppUser saved = appUserRepository.save(user);
+        userDetailsService.evict(saved.getUsername());
+        authenticationProvider.invalidate(saved.getUsername());
+        logger.info("User {} updated successfully", saved.getUsername());
+        return saved;
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.BulkResponse;
+import com.example.Demo.model.common.EntityChangeEvent;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dao.EntityTombstone;
+import com.example.Demo.model.dto.BulkOperationDTO;
+import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.repository.EntityRepository;
+import com.example.Demo.service.EntityBulkService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+//bulk operations service implementation class
+@Service
+@Timed(value = "entity.service", histogram = true)
+public class EntityBulkServiceImpl implements EntityBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityBulkServiceImpl.class);
+
+    // SQL standard SQLState of a unique or primary key violation
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // An updated entity with its @Version before the changes were copied into it
+    private record Update(Entity entity, Long version) {
+    }
+
+    @Autowired
+    private EntityRepository entityRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private EntityCache entityCache;
+    @Autowired
+    private EntityTypeCounters entityTypeCounters;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${entity.bulk.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${entity.bulk.max-operations:10000}")
+    private int maxOperations = 10000;
+
+    /**
+     * Applies a batch of create/update/delete operations.
+     * Operations are processed in order, in chunks of entity.bulk.chunk-size, each chunk in its own
+     * transaction. Inside a chunk the targets of updates and deletes are loaded with a single
+     * IN query and all statements are sent through Hibernate JDBC batching at commit. A chunk that
+     * rolls back is applied again one operation per transaction, so only the operations that fail
+     * on their own are reported: 409 for a concurrent change or a unique key, 400 for another
+     * constraint, 500 otherwise. Database errors are only logged, never returned.
+     * @param operations The operations to apply.
+     * @return One result per operation, in request order.
+     * @throws ValidationException If the request is empty or larger than entity.bulk.max-operations.
+     */
+    @Override
+    public BulkResponse execute(List<BulkOperationDTO> operations) throws ValidationException {
+        if (operations == null || operations.isEmpty()) {
+            throw new ValidationException("Bulk request must contain at least one operation");
+        }
+        if (operations.size() > maxOperations) {
+            throw new ValidationException("Bulk request cannot contain more than " + maxOperations + " operations");
+        }
+        logger.info("Executing bulk request with {} operations", operations.size());
+
+        List<BulkResponse.Item> results = new ArrayList<>(operations.size());
+        for (int from = 0; from < operations.size(); from += chunkSize) {
+            List<BulkOperationDTO> chunk = operations.subList(from, Math.min(from + chunkSize, operations.size()));
+            results.addAll(executeChunk(chunk));
+        }
+
+        BulkResponse response = new BulkResponse(results);
+        logger.info("Bulk request completed, errors: {}", response.isErrors());
+        return response;
+    }
+
+    private List<BulkResponse.Item> executeChunk(List<BulkOperationDTO> chunk) {
+        BulkResponse.Item[] results = new BulkResponse.Item[chunk.size()];
+        // Per-type count changes, applied to the counters only once the chunk has committed
+        Map<Entity.EntityType, Long> typeDeltas = new HashMap<>();
+        boolean retry = false;
+        try {
+            transactionTemplate.execute(status -> {
+                List<Update> updates = applyChunk(chunk, results, typeDeltas);
+                entityManager.flush();
+                // Hibernate only bumps @Version of the rows it dirtied; unchanged updates keep their changeSeq
+                List<Long> changed = new ArrayList<>();
+                for (Update update : updates) {
+                    if (!Objects.equals(update.entity().getVersion(), update.version())) {
+                        changed.add(update.entity().getEntityId());
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    // The batched UPDATEs leave changeSeq alone; one more statement for the delta sync
+                    entityRepository.markChanged(changed);
+                }
+                return null;
+            });
+            typeDeltas.forEach(entityTypeCounters::add);
+            publishChanges(results);
+        } catch (RuntimeException ex) {
+            if (chunk.size() > 1) {
+                logger.warn("Bulk chunk of {} operations rolled back, applying them one at a time: {}", chunk.size(), ex.getMessage());
+                retry = true;
+            } else {
+                logger.warn("Bulk {} operation on entity {} rolled back: {}", chunk.get(0).getOp(), chunk.get(0).getId(), ex.getMessage());
+                if (results[0] == null || results[0].getStatus() < 400) {
+                    results[0] = rejected(chunk.get(0), ex);
+                }
+            }
+        } finally {
+            // Keep the persistence context from growing across chunks
+            entityManager.clear();
+        }
+        if (retry) {
+            List<BulkResponse.Item> retried = new ArrayList<>(chunk.size());
+            for (BulkOperationDTO operation : chunk) {
+                retried.addAll(executeChunk(List.of(operation)));
+            }
+            return retried;
+        }
+        List<Long> touched = new ArrayList<>();
+        for (BulkResponse.Item result : results) {
+            if (result.getId() != null) {
+                touched.add(result.getId());
+            }
+        }
+        entityCache.invalidateAll(touched);
+        return List.of(results);
+    }
+
+    // Only for a committed chunk: one change event per operation that succeeded
+    private void publishChanges(BulkResponse.Item[] results) {
+        for (BulkResponse.Item result : results) {
+            if (result.getStatus() < 400) {
+                EntityChangeEvent.Change change = switch (result.getOp()) {
+                    case CREATE -> EntityChangeEvent.Change.CREATED;
+                    case UPDATE -> EntityChangeEvent.Change.UPDATED;
+                    case DELETE -> EntityChangeEvent.Change.DELETED;
+                };
+                eventPublisher.publishEvent(EntityChangeEvent.of(change, result.getId()));
+            }
+        }
+    }
+
+    // Returns the updated entities
+    private List<Update> applyChunk(List<BulkOperationDTO> chunk, BulkResponse.Item[] results, Map<Entity.EntityType, Long> typeDeltas) {
+        Set<Long> ids = new HashSet<>();
+        for (BulkOperationDTO operation : chunk) {
+            if (operation.getOp() != BulkOperationDTO.Operation.CREATE && operation.getId() != null) {
+                ids.add(operation.getId());
+            }
+        }
+        Map<Long, Entity> existing = new HashMap<>();
+        if (!ids.isEmpty()) {
+            entityRepository.findAllById(ids).forEach(entity -> existing.put(entity.getEntityId(), entity));
+        }
+
+        List<Entity> created = new ArrayList<>();
+        List<Integer> createdIndexes = new ArrayList<>();
+        List<Update> updated = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkOperationDTO operation = chunk.get(i);
+            String error = validate(operation);
+            if (error != null) {
+                results[i] = failure(operation, HttpStatus.BAD_REQUEST, error);
+                continue;
+            }
+            switch (operation.getOp()) {
+                case CREATE -> {
+                    Entity entity = new Entity();
+                    copy(operation.getEntity(), entity);
+                    entityManager.persist(entity);
+                    typeDeltas.merge(entity.getEntityType(), 1L, Long::sum);
+                    created.add(entity);
+                    createdIndexes.add(i);
+                }
+                case UPDATE -> {
+                    Entity entity = existing.get(operation.getId());
+                    if (entity == null) {
+                        results[i] = failure(operation, HttpStatus.NOT_FOUND, "Entity not found with id: " + operation.getId());
+                    } else {
+                        typeDeltas.merge(entity.getEntityType(), -1L, Long::sum);
+                        updated.add(new Update(entity, entity.getVersion()));
+                        copy(operation.getEntity(), entity);
+                        typeDeltas.merge(entity.getEntityType(), 1L, Long::sum);
+                        results[i] = new BulkResponse.Item(operation.getOp(), entity.getEntityId(), HttpStatus.OK.value(), null);
+                    }
+                }
+                case DELETE -> {
+                    Entity entity = existing.remove(operation.getId());
+                    if (entity == null) {
+                        results[i] = failure(operation, HttpStatus.NOT_FOUND, "Entity not found with id: " + operation.getId());
+                    } else {
+                        entityManager.remove(entity);
+                        entityManager.persist(new EntityTombstone(entity.getEntityId()));
+                        typeDeltas.merge(entity.getEntityType(), -1L, Long::sum);
+                        results[i] = new BulkResponse.Item(operation.getOp(), entity.getEntityId(), HttpStatus.OK.value(), null);
+                    }
+                }
+            }
+        }
+        // Ids are assigned from the pooled sequence at persist time
+        for (int i = 0; i < created.size(); i++) {
+            int index = createdIndexes.get(i);
+            results[index] = new BulkResponse.Item(BulkOperationDTO.Operation.CREATE, created.get(i).getEntityId(), HttpStatus.CREATED.value(), null);
+        }
+        return updated;
+    }
+
+    private String validate(BulkOperationDTO operation) {
+        if (operation == null || operation.getOp() == null) {
+            return "Operation type cannot be null";
+        }
+        if (operation.getOp() != BulkOperationDTO.Operation.CREATE && operation.getId() == null) {
+            return "Entity id cannot be null";
+        }
+        if (operation.getOp() != BulkOperationDTO.Operation.DELETE) {
+            if (operation.getEntity() == null) {
+                return "Entity details cannot be null";
+            }
+            Set<ConstraintViolation<EntityDTO>> violations = validator.validate(operation.getEntity());
+            if (!violations.isEmpty()) {
+                return violations.iterator().next().getMessage();
+            }
+        }
+        return null;
+    }
+
+    private static void copy(EntityDTO entityDTO, Entity entity) {
+        entity.setName(entityDTO.getName());
+        entity.setDescription(entityDTO.getDescription());
+        entity.setEntityType(entityDTO.getEntityType());
+    }
+
+    // The database error may quote statements and values, so the client only gets a generic message
+    private static BulkResponse.Item rejected(BulkOperationDTO operation, RuntimeException ex) {
+        boolean integrity = false;
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException) {
+                return failure(operation, HttpStatus.CONFLICT, "Entity was changed concurrently");
+            }
+            // Batched statements leave the kind OTHER, the SQLState still tells a unique violation
+            if (cause instanceof DuplicateKeyException || cause instanceof ConstraintViolationException violation
+                    && (violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+                    || UNIQUE_VIOLATION.equals(violation.getSQLState()))) {
+                return failure(operation, HttpStatus.CONFLICT, "Entity conflicts with a stored entity");
+            }
+            integrity |= cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException;
+        }
+        return integrity
+                ? failure(operation, HttpStatus.BAD_REQUEST, "Entity violates a database constraint")
+                : failure(operation, HttpStatus.INTERNAL_SERVER_ERROR, "Operation could not be applied");
+    }
+
+    private static BulkResponse.Item failure(BulkOperationDTO operation, HttpStatus status, String error) {
+        BulkOperationDTO.Operation op = operation == null ? null : operation.getOp();
+        Long id = operation == null ? null : operation.getId();
+        return new BulkResponse.Item(op, id, status.value(), error);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.model.common.CacheStatsResponse;
+import com.example.Demo.model.dao.Entity;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting near-cache of entities by id. Missing ids are cached as well
+ * (for a shorter TTL) so repeated lookups of unknown ids do not reach the database.
+ * Entries are futures: a miss only installs a placeholder under the map lock and the database
+ * lookup runs outside of it, so a loading virtual thread never pins its carrier on a monitor.
+ * Invalidations are remembered per id for the replica lag window: a load that overlapped one is
+ * not kept, and {@link #recentlyInvalidated(Long)} tells callers to load from the primary.
+ */
+@Component
+public class EntityCache implements MeterBinder {
+
+    private final AsyncCache<Long, Optional<Entity>> cache;
+
+    // Sequence number of the last invalidation of each id, kept for the replica lag window
+    private final Cache<Long, Long> invalidations;
+
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    public EntityCache(@Value("${entity.cache.maximum-size:100000}") long maximumSize,
+                       @Value("${entity.cache.ttl:5m}") Duration ttl,
+                       @Value("${entity.cache.negative-ttl:30s}") Duration negativeTtl,
+                       @Value("${datasource.replica.read-your-writes-window:5s}") Duration replicaLagWindow) {
+        this.invalidations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(replicaLagWindow)
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, Optional<Entity>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<Entity> entity, long currentTime) {
+                        return entity.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<Entity> entity, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, entity, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<Entity> entity, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached lookup for the id, loading it on a miss. Concurrent misses on the
+     * same id share a single load. If the id is invalidated while the load runs, its result is
+     * returned to the waiting callers but not cached, as it may predate the change.
+     * @param id The entity id.
+     * @param loader Database lookup used on a miss.
+     * @return The entity, or empty if it does not exist.
+     */
+    public Optional<Entity> get(Long id, Function<Long, Optional<Entity>> loader) {
+        long start = invalidationSequence.get();
+        CompletableFuture<Optional<Entity>> placeholder = new CompletableFuture<>();
+        CompletableFuture<Optional<Entity>> future = cache.get(id, (key, executor) -> placeholder);
+        if (future == placeholder) {
+            // This caller won the miss: load on the calling thread, after the map lock is released
+            try {
+                Optional<Entity> loaded = loader.apply(id);
+                Long invalidated = invalidations.getIfPresent(id);
+                if (invalidated != null && invalidated > start) {
+                    cache.asMap().remove(id, placeholder);
+                }
+                placeholder.complete(loaded);
+            } catch (RuntimeException ex) {
+                // Failed futures are dropped by the cache, the next lookup retries
+                placeholder.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the entity only if it is already cached; never loads and never waits for a load.
+     * @param id The entity id.
+     * @return The cached entity, or empty on a miss, a pending load or a cached "not found".
+     */
+    public Optional<Entity> getIfPresent(Long id) {
+        CompletableFuture<Optional<Entity>> future = cache.getIfPresent(id);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return future.join();
+    }
+
+    public void put(Entity entity) {
+        if (entity.getEntityId() != null) {
+            cache.put(entity.getEntityId(), CompletableFuture.completedFuture(Optional.of(entity)));
+        }
+    }
+
+    /**
+     * @param id The entity id.
+     * @return True if the id was invalidated within the replica lag window, so a replica may still
+     * return the row as it was before that change.
+     */
+    public boolean recentlyInvalidated(Long id) {
+        return invalidations.getIfPresent(id) != null;
+    }
+
+    public void invalidate(Long id) {
+        // Recorded first, so a load that misses the removal still sees it
+        invalidations.put(id, invalidationSequence.incrementAndGet());
+        cache.synchronous().invalidate(id);
+    }
+
+    public void invalidateAll(Iterable<Long> ids) {
+        for (Long id : ids) {
+            invalidations.put(id, invalidationSequence.incrementAndGet());
+        }
+        cache.synchronous().invalidateAll(ids);
+    }
+
+    // Publishes the near-cache hit/miss/eviction counters as cache.* metrics tagged cache=entity
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "entity");
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return new CacheStatsResponse(cache.synchronous().estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.model.common.EntityChangeEvent;
+import com.example.Demo.service.EntityChangeService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+//entity change feed (server-sent events) service implementation class
+@Service
+public class EntityChangeServiceImpl implements EntityChangeService, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityChangeServiceImpl.class);
+
+    /**
+     * What happens to a subscriber whose buffer is full when an event is published.
+     */
+    public enum Overflow {
+        // The event is skipped for that subscriber, which gets a reset event once it catches up
+        DROP,
+        // The stream is closed; the client reconnects with Last-Event-ID and is replayed from the history
+        DISCONNECT
+    }
+
+    // Event ids are <stream>-<sequence>; an id of an earlier run or another instance cannot be resumed
+    private final String stream = Long.toString(System.currentTimeMillis(), 36);
+
+    private final int bufferSize;
+
+    private final int historySize;
+
+    private final Overflow overflow;
+
+    private final Duration timeout;
+
+    // Guards sequence, history and subscribers, so a subscriber registers exactly between two events
+    private final Object lock = new Object();
+
+    private long sequence;
+
+    private final ArrayDeque<Published> history = new ArrayDeque<>();
+
+    private final Set<Subscriber> subscribers = new LinkedHashSet<>();
+
+    // Sends run here, so a slow client holds up neither the committing request nor the other subscribers
+    private final ExecutorService senders = Executors.newCachedThreadPool(senderThreads());
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder disconnected = new LongAdder();
+
+    public EntityChangeServiceImpl(@Value("${entity.changes.buffer-size:256}") int bufferSize,
+                                   @Value("${entity.changes.history:1024}") int historySize,
+                                   @Value("${entity.changes.overflow:disconnect}") Overflow overflow,
+                                   @Value("${entity.changes.timeout:30m}") Duration timeout) {
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.overflow = overflow;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Opens a change stream. Without Last-Event-ID it starts at the next event. With one it first
+     * replays the newer events from the history, or sends a reset event when they are no longer
+     * there, after which the client should re-read what it tracks.
+     * @param lastEventId The id of the last event the client received, or null.
+     * @return The emitter streaming created, updated and deleted events.
+     */
+    @Override
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+        // Ends the stream quietly; the client reconnects with its Last-Event-ID
+        emitter.onTimeout(emitter::complete);
+
+        int replayed = 0;
+        synchronized (lock) {
+            String position = id(sequence);
+            if (lastEventId == null || lastEventId.isBlank()) {
+                // Commits the response and gives a client that drops before the first event a resume point
+                subscriber.offer(() -> SseEmitter.event().id(position).comment("subscribed"), false);
+            } else {
+                long after = sequenceOf(lastEventId);
+                long oldest = history.isEmpty() ? sequence + 1 : history.peekFirst().sequence();
+                if (after < oldest - 1 || after > sequence) {
+                    subscriber.offer(() -> reset(position), false);
+                } else {
+                    subscriber.offer(() -> SseEmitter.event().comment("resumed"), false);
+                    for (Published published : history) {
+                        if (published.sequence() > after) {
+                            subscriber.offer(() -> message(published), false);
+                            replayed++;
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        logger.info("Change feed subscriber added after {}, {} events replayed", lastEventId, replayed);
+        return emitter;
+    }
+
+    /**
+     * Publishes a change to every subscriber once the transaction that made it has committed,
+     * or right away when there is none. Nothing is published for a rolled back transaction.
+     * @param event The committed change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(EntityChangeEvent event) {
+        List<Subscriber> overflowing = new ArrayList<>();
+        synchronized (lock) {
+            Published published = new Published(++sequence, event);
+            history.addLast(published);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.offer(() -> message(published), true)) {
+                    overflowing.add(subscriber);
+                }
+            }
+        }
+        for (Subscriber subscriber : overflowing) {
+            if (overflow == Overflow.DROP) {
+                subscriber.missed();
+                dropped.increment();
+            } else {
+                logger.warn("Change feed subscriber fell {} events behind, disconnecting it", bufferSize);
+                unsubscribe(subscriber);
+                disconnected.increment();
+                // complete() waits for a send in progress, which a stuck client can block
+                senders.execute(subscriber.emitter::complete);
+            }
+        }
+    }
+
+    // Keeps idle streams from being cut by proxies and finds clients that went away
+    @Scheduled(fixedDelayString = "${entity.changes.heartbeat-interval:15s}")
+    public void heartbeat() {
+        List<Subscriber> idle;
+        synchronized (lock) {
+            idle = new ArrayList<>(subscribers);
+        }
+        idle.forEach(Subscriber::heartbeat);
+    }
+
+    // Lets clients reconnect to another instance instead of waiting for their timeout
+    @PreDestroy
+    public void close() {
+        List<Subscriber> open;
+        synchronized (lock) {
+            open = new ArrayList<>(subscribers);
+            subscribers.clear();
+        }
+        open.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("entities.changes.subscribers", this, EntityChangeServiceImpl::subscriberCount)
+                .description("Open /entities/changes streams")
+                .register(registry);
+        FunctionCounter.builder("entities.changes.dropped", dropped, LongAdder::sum)
+                .description("Events skipped for a subscriber whose buffer was full (overflow=drop)")
+                .register(registry);
+        FunctionCounter.builder("entities.changes.disconnected", disconnected, LongAdder::sum)
+                .description("Subscribers disconnected because their buffer was full (overflow=disconnect)")
+                .register(registry);
+    }
+
+    int subscriberCount() {
+        synchronized (lock) {
+            return subscribers.size();
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        synchronized (lock) {
+            subscribers.remove(subscriber);
+        }
+        subscriber.close();
+    }
+
+    private String id(long sequence) {
+        return stream + "-" + sequence;
+    }
+
+    // -1 for an id this run did not issue, which is then answered with a reset
+    private long sequenceOf(String eventId) {
+        if (!eventId.startsWith(stream + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(stream.length() + 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private SseEmitter.SseEventBuilder message(Published published) {
+        EntityChangeEvent event = published.event();
+        return SseEmitter.event()
+                .id(id(published.sequence()))
+                .name(event.change().name().toLowerCase(Locale.ROOT))
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private static SseEmitter.SseEventBuilder reset(String position) {
+        return SseEmitter.event().id(position).name("reset").data("Changes since Last-Event-ID are no longer available");
+    }
+
+    private static CustomizableThreadFactory senderThreads() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("entity-changes-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    // An event with its place in the stream; the SSE message is built per send, as a builder can be sent once
+    private record Published(long sequence, EntityChangeEvent event) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // Guarded by the subscriber; holds messages not sent yet
+        private final ArrayDeque<Supplier<SseEmitter.SseEventBuilder>> buffer = new ArrayDeque<>();
+
+        private boolean sending;
+
+        private boolean missedEvents;
+
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Buffers a message and starts a sender if none is running for this subscriber.
+         * @param message Builds the SSE message.
+         * @param live Whether the message counts against the buffer; replayed events and heartbeats do not.
+         * @return False if the buffer is full and the message was not taken.
+         */
+        boolean offer(Supplier<SseEmitter.SseEventBuilder> message, boolean live) {
+            synchronized (this) {
+                if (closed) {
+                    return true;
+                }
+                if (live && buffer.size() >= bufferSize) {
+                    return false;
+                }
+                if (live && missedEvents) {
+                    // Tells the client to re-read; its Last-Event-ID still resumes if the history covers the gap
+                    buffer.addLast(() -> SseEmitter.event().name("reset").data("Events were skipped, the subscriber fell behind"));
+                    missedEvents = false;
+                }
+                buffer.addLast(message);
+                if (sending) {
+                    return true;
+                }
+                sending = true;
+            }
+            senders.execute(this::send);
+            return true;
+        }
+
+        synchronized void missed() {
+            missedEvents = true;
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (sending || closed) {
+                    return;
+                }
+            }
+            offer(() -> SseEmitter.event().comment("heartbeat"), false);
+        }
+
+        synchronized void close() {
+            closed = true;
+            buffer.clear();
+        }
+
+        private void send() {
+            while (true) {
+                Supplier<SseEmitter.SseEventBuilder> message;
+                synchronized (this) {
+                    message = closed ? null : buffer.pollFirst();
+                    if (message == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(message.get());
+                } catch (IOException | IllegalStateException ex) {
+                    // The client went away or the stream was completed
+                    unsubscribe(this);
+                    synchronized (this) {
+                        sending = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.Demo.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of listing totals, keyed by filter. Lets count=cached listings run the
+ * COUNT(*) at most once per TTL per filter instead of once per page request.
+ */
+@Component
+public class EntityCountCache {
+
+    private static final int MAX_KEYS = 1_000;
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    private final long ttlNanos;
+
+    public EntityCountCache(@Value("${entity.count-cache.ttl:30s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns the cached total for the filter, computing it when absent or expired.
+     * @param key Filter key, e.g. "type:USER".
+     * @param counter Query that computes the exact total.
+     * @return The (possibly slightly stale) total.
+     */
+    public long get(String key, LongSupplier counter) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(key);
+        if (cached != null && now - cached.loadedAt < ttlNanos) {
+            return cached.count;
+        }
+        if (counts.size() >= MAX_KEYS) {
+            // Free-text name filters can produce unbounded keys; start over rather than grow
+            counts.clear();
+        }
+        long count = counter.getAsLong();
+        counts.put(key, new CachedCount(count, now));
+        return count;
+    }
+
+    private record CachedCount(long count, long loadedAt) {
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.EntityDeltaResponse;
+import com.example.Demo.model.common.EntityDeltaToken;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dao.EntityTombstone;
+import com.example.Demo.repository.EntityRepository;
+import com.example.Demo.repository.EntityTombstoneRepository;
+import com.example.Demo.service.EntityDeltaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Delta sync over entity_change_seq. Every write draws the next value of the sequence into
+ * Entity.changeSeq, or into a tombstone for a delete, so the changes since a token are a range
+ * scan. Values are drawn in statement order but become visible in commit order: a write may
+ * still be in flight below a value that is already visible. A delta therefore only returns
+ * values below a fence, a value drawn from the sequence at least entity.delta.settle ago: every
+ * value below it was drawn before it, and the settle is assumed to be longer than any write
+ * transaction.
+ */
+@Service
+public class EntityDeltaServiceImpl implements EntityDeltaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityDeltaServiceImpl.class);
+
+    @Autowired
+    private EntityRepository entityRepository;
+    @Autowired
+    private EntityTombstoneRepository entityTombstoneRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Duration settle;
+
+    private final Duration sampleInterval;
+
+    private final Duration tombstoneRetention;
+
+    private final int maxLimit;
+
+    // Guarded by itself; oldest first, the first one the newest that has settled once there is one
+    private final ArrayDeque<Fence> fences = new ArrayDeque<>();
+
+    public EntityDeltaServiceImpl(@Value("${entity.delta.settle:10s}") Duration settle,
+                                  @Value("${entity.delta.sample-interval:1s}") Duration sampleInterval,
+                                  @Value("${entity.delta.tombstone-retention:30d}") Duration tombstoneRetention,
+                                  @Value("${entity.delta.max-limit:10000}") int maxLimit) {
+        this.settle = settle;
+        this.sampleInterval = sampleInterval;
+        this.tombstoneRetention = tombstoneRetention;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Fetches the entities changed and deleted after a token, in change order.
+     * @param since The nextToken of the previous call, or null to start from the beginning.
+     * @param limit Maximum number of changed and deleted entries together.
+     * @return The changes, with the token to continue from.
+     * @throws ValidationException If the token is malformed or older than the tombstone retention,
+     *                             or the limit is out of range.
+     */
+    @Override
+    // Read-write so it runs on the primary: a replica lagging behind the fence would be missing
+    // changes the returned token then skips for good
+    @Transactional
+    public EntityDeltaResponse getDelta(String since, int limit) throws ValidationException {
+        if (limit < 1 || limit > maxLimit) {
+            throw new ValidationException("limit must be between 1 and " + maxLimit);
+        }
+        long after = 0;
+        if (since != null && !since.isBlank()) {
+            EntityDeltaToken token = EntityDeltaToken.decode(since);
+            if (token.getIssuedAt().isBefore(Instant.now().minus(tombstoneRetention))) {
+                throw new ValidationException("Delta token expired, deletes before " + tombstoneRetention
+                        + " ago are no longer tracked; sync again without since");
+            }
+            after = token.getChangeSeq();
+        }
+        long ceiling = ceiling();
+        if (ceiling <= after) {
+            return new EntityDeltaResponse(List.of(), List.of(), new EntityDeltaToken(after, Instant.now()).encode(), false);
+        }
+
+        List<Entity> rows = entityRepository.findChanged(after, ceiling, Limit.of(limit));
+        List<EntityTombstone> tombstones = entityTombstoneRepository.findDeleted(after, ceiling, Limit.of(limit));
+        // Both are in changeSeq order; keep the first limit entries of the two together
+        List<Entity> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        long last = after;
+        int r = 0;
+        int t = 0;
+        while (r + t < limit && (r < rows.size() || t < tombstones.size())) {
+            if (t == tombstones.size() || (r < rows.size() && rows.get(r).getChangeSeq() < tombstones.get(t).getChangeSeq())) {
+                last = rows.get(r).getChangeSeq();
+                changed.add(rows.get(r++));
+            } else {
+                last = tombstones.get(t).getChangeSeq();
+                deleted.add(tombstones.get(t++).getEntityId());
+            }
+        }
+        // A full list may have been cut off by its limit, so its next entry is unknown
+        boolean hasMore = r < rows.size() || t < tombstones.size() || rows.size() == limit || tombstones.size() == limit;
+        long next = hasMore ? last : ceiling;
+        logger.info("Delta after {} up to {}: {} changed, {} deleted, more: {}", after, ceiling, changed.size(), deleted.size(), hasMore);
+        return new EntityDeltaResponse(changed, deleted, new EntityDeltaToken(next, Instant.now()).encode(), hasMore);
+    }
+
+    /**
+     * Draws a fence from the change sequence. Runs on the primary, as this is not a read-only
+     * transaction; each instance keeps its own fences, only their age on the local clock matters.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${entity.delta.sample-interval:1s}")
+    public void sampleFence() {
+        Long value;
+        try {
+            value = jdbcTemplate.queryForObject("select nextval('entity_change_seq')", Long.class);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not sample the change sequence: {}", ex.getMessage());
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (fences) {
+            fences.addLast(new Fence(now, value));
+            prune(now);
+        }
+    }
+
+    /**
+     * Removes the tombstones no accepted token can need any more. Beyond the retention it keeps
+     * a settle and a sample interval, the most a tombstone's changeSeq can lag behind a fence
+     * sampled around the time it was written.
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelayString = "${entity.delta.purge-interval:1h}")
+    public void purgeTombstones() {
+        Instant cutoff = Instant.now().minus(tombstoneRetention).minus(settle.multipliedBy(2)).minus(sampleInterval);
+        try {
+            int purged = entityTombstoneRepository.purgeDeletedBefore(cutoff);
+            logger.info("Purged {} entity tombstones deleted before {}", purged, cutoff);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not purge entity tombstones: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * @return The highest changeSeq a delta may return: every value at or below it was drawn
+     *         more than a settle ago. 0 until the first fence has settled.
+     */
+    long ceiling() {
+        long now = System.nanoTime();
+        synchronized (fences) {
+            prune(now);
+            Fence oldest = fences.peekFirst();
+            return oldest != null && settled(oldest, now) ? oldest.value() - 1 : 0;
+        }
+    }
+
+    // Drops settled fences that a newer settled fence supersedes
+    private void prune(long now) {
+        while (fences.size() > 1) {
+            Iterator<Fence> iterator = fences.iterator();
+            iterator.next();
+            if (!settled(iterator.next(), now)) {
+                return;
+            }
+            fences.removeFirst();
+        }
+    }
+
+    private boolean settled(Fence fence, long now) {
+        return now - fence.sampledAt() >= settle.toNanos();
+    }
+
+    private record Fence(long sampledAt, long value) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.model.common.ExportFormat;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.repository.EntityRepository;
+import com.example.Demo.service.EntityExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+//export service implementation class
+@Service
+@Timed(value = "entity.service", histogram = true)
+public class EntityExportServiceImpl implements EntityExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityExportServiceImpl.class);
+
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private static final String CSV_HEADER = "entityId,name,description,entityType,createdAt,updatedAt\n";
+
+    @Autowired
+    private EntityRepository entityRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Streams every entity to the output, one row at a time.
+     * Rows are read through a server-side cursor and detached once written, so memory use does
+     * not depend on the size of the table.
+     * @param format NDJSON (one JSON object per line) or CSV with a header row.
+     * @param outputStream The stream to write to; it is flushed but not closed.
+     * @return The number of exported entities.
+     * @throws IOException If writing to the output fails.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream outputStream) throws IOException {
+        logger.info("Exporting Entities as {}", format);
+        BufferedOutputStream out = new BufferedOutputStream(outputStream, 64 * 1024);
+        ObjectWriter writer = objectMapper.writerFor(Entity.class);
+        long count = 0;
+
+        if (format == ExportFormat.CSV) {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+        try (Stream<Entity> entities = entityRepository.streamAll()) {
+            Iterator<Entity> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                Entity entity = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    out.write(toCsv(entity).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    out.write(writer.writeValueAsBytes(entity));
+                    out.write(NEW_LINE);
+                }
+                entityManager.detach(entity);
+                count++;
+            }
+        }
+        out.flush();
+
+        logger.info("Exported {} Entities as {}", count, format);
+        return count;
+    }
+
+    private static String toCsv(Entity entity) {
+        return entity.getEntityId() + ","
+                + csvField(entity.getName()) + ","
+                + csvField(entity.getDescription()) + ","
+                + (entity.getEntityType() == null ? "" : entity.getEntityType().name()) + ","
+                + (entity.getCreatedAt() == null ? "" : entity.getCreatedAt()) + ","
+                + (entity.getUpdatedAt() == null ? "" : entity.getUpdatedAt()) + "\n";
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.model.dao.Entity;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out entity ids before the row is inserted, from the same pooled entities_seq generator
+ * Hibernate uses for persist: one sequence call reserves a block of 50 ids, so ids assigned here
+ * never collide with ids assigned by JPA inserts.
+ */
+@Component
+public class EntityIdAllocator {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactoryImplementor sessionFactory;
+
+    private IdentifierGenerator generator;
+
+    @PostConstruct
+    void init() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        generator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Entity.class).getGenerator();
+    }
+
+    /**
+     * @return The next entity id; only touches the database when the current block is used up.
+     */
+    public long next() {
+        // The session only borrows a connection when the generator has to fetch a new block
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return ((Number) generator.generate((SharedSessionContractImplementor) session, null)).longValue();
+        }
+    }
+}
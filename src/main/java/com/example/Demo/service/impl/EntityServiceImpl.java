@@ -1,28 +1,64 @@
 package com.example.Demo.service.impl;
 
+import com.example.Demo.Exception.EntityNotFoundException;
+import com.example.Demo.Exception.PreconditionFailedException;
 import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.datasource.ReadYourWrites;
+import com.example.Demo.model.common.CacheStatsResponse;
+import com.example.Demo.model.common.CountMode;
+import com.example.Demo.model.common.EntityCriteria;
+import com.example.Demo.model.common.EntityChangeEvent;
+import com.example.Demo.model.common.EntityCursor;
+import com.example.Demo.model.common.EntityFields;
+import com.example.Demo.model.common.EntityStatsResponse;
+import com.example.Demo.model.common.EntityVersion;
 import com.example.Demo.model.common.PageResponse;
+import com.example.Demo.model.common.ReplacedType;
 import com.example.Demo.model.dao.Entity;
 import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.model.dto.EntityPatchDTO;
 import com.example.Demo.repository.EntityRepository;
+import com.example.Demo.repository.EntitySpecifications;
 import com.example.Demo.service.EntityService;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 //service implementation class
 @Service
+@Timed(value = "entity.service", histogram = true)
 public class EntityServiceImpl implements EntityService {
 
     private static final Logger logger = LoggerFactory.getLogger(EntityServiceImpl.class);
     @Autowired
     private EntityRepository entityRepository;
+    @Autowired
+    private EntityCountCache entityCountCache;
+    @Autowired
+    private EntityCache entityCache;
+    @Autowired
+    private EntityTypeCounters entityTypeCounters;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${entity.delete.chunk-size:1000}")
+    private int deleteChunkSize = 1000;
 
     /**
      * Adds a new entity to the system.
@@ -42,95 +78,316 @@ public class EntityServiceImpl implements EntityService {
             entity.setDescription(entityDTO.getDescription());
             entity.setEntityType(entityDTO.getEntityType());
             entityRepository.save(entity);
+            entityTypeCounters.add(entity.getEntityType(), 1);
+            // Replaces a cached "not found" for the newly assigned id
+            entityCache.put(entity);
+            eventPublisher.publishEvent(EntityChangeEvent.of(EntityChangeEvent.Change.CREATED, entity.getEntityId()));
             logger.info("Entity added successfully");
         return entity;
     }
 
     /**
-     * Fetches an entity by its unique ID.
+     * Fetches an entity by its unique ID, served from the near-cache when possible. A miss is
+     * loaded from a replica, unless the entity was invalidated within the read-your-writes
+     * window: a replica that has not caught up with that write would put the version before it
+     * back into the cache.
      * @param id The ID of the entity to retrieve.
      * @return An Optional containing the entity if found.
      */
     @Override
     public Optional<Entity> getEntity(Long id) {
         logger.info("Fetching Entity with ID: {}", id);
-        return entityRepository.findById(id);
+        return entityCache.get(id, key -> {
+            if (!entityCache.recentlyInvalidated(key)) {
+                return entityRepository.findById(key);
+            }
+            // The loader runs on the calling thread, inside the scope
+            try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+                return entityRepository.findById(key);
+            }
+        });
+    }
+
+    /**
+     * Fetches only the version and modification time of an entity, for conditional GETs.
+     * A cached entity answers without a query; otherwise two columns are read by primary key.
+     * @param id The ID of the entity.
+     * @return The version, or empty if the entity does not exist.
+     */
+    @Override
+    public Optional<EntityVersion> getEntityVersion(Long id) {
+        Optional<Entity> cached = entityCache.getIfPresent(id);
+        if (cached.isPresent()) {
+            return cached.map(EntityVersion::of);
+        }
+        return entityRepository.findVersionById(id);
+    }
+
+    /**
+     * Fetches only the requested attributes of an entity. A cached entity answers without a
+     * query; otherwise just those columns are selected by primary key.
+     * @param id The ID of the entity.
+     * @param fields The attributes to return.
+     * @return The attributes by name, or empty if the entity does not exist.
+     */
+    @Override
+    public Optional<Map<String, Object>> getEntityFields(Long id, EntityFields fields) {
+        logger.info("Fetching fields {} of Entity with ID: {}", fields, id);
+        Optional<Entity> cached = entityCache.getIfPresent(id);
+        if (cached.isPresent()) {
+            return cached.map(fields::of);
+        }
+        return entityRepository.findFields(EntitySpecifications.hasId(id), fields.getNames(), Sort.unsorted(), 0, 1)
+                .stream().findFirst();
+    }
+
+    /**
+     * @return The number of entities per type, from the incrementally maintained counters.
+     */
+    @Override
+    public EntityStatsResponse getStats() {
+        return entityTypeCounters.stats();
+    }
+
+    /**
+     * @return Hit, miss and eviction statistics of the getEntity near-cache.
+     */
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        return entityCache.stats();
     }
 
     /**
      *  Fetches a paginated and optionally filtered list of entities.
+     * @param criteria Filters to AND together (type, name, created/updated date ranges)
      * @param pageNo Page number for pagination.
      * @param pageSize  Number of records per page
-     * @param name Optional filter by name
-     * @param sortBy Field to sort by (default: createdAt)
-     * @param entityType Optional filter by entity type
+     * @param sortBy Field to sort by: createdAt (default) or updatedAt
+     * @param direction Sort direction: asc (default) or desc
+     * @param countMode How totalPages is computed; anything but EXACT runs a single query.
+     * @param fields Attributes to select and return per row, or null for full entities.
      * @return A PageResponse containing the paginated list of entities.
      */
     @Override
-    public PageResponse getAllEntity(int pageNo, int pageSize, String name, String sortBy, String entityType) {
-        logger.info("Fetching Entities with pageNo: {}, pageSize: {}, name: {}, sortBy: {}, entityType: {}", pageNo, pageSize, name, sortBy, entityType);
+    @Transactional(readOnly = true)
+    public PageResponse getAllEntity(EntityCriteria criteria, int pageNo, int pageSize, String sortBy, String direction, CountMode countMode, EntityFields fields) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Fetching Entities with pageNo: {}, pageSize: {}, criteria: {}, sortBy: {}, direction: {}, count: {}, fields: {}", pageNo, pageSize, criteria, sortBy, direction, countMode, fields);
+        }
 
-        // Default sorting by createdAt if no sort parameter is passed
-        Sort sort = Sort.by(Sort.Order.asc("createdAt"));
-        if ("updatedAt".equalsIgnoreCase(sortBy)) {
-            sort = Sort.by(Sort.Order.asc("updatedAt"));
+        Specification<Entity> specification = EntitySpecifications.matching(criteria);
+        Sort sort = sortOf(sortBy, direction);
+
+        PageResponse pageResponse = new PageResponse();
+        pageResponse.setPageNumber(pageNo);
+        pageResponse.setPageSize(pageSize);
+
+        if (fields != null) {
+            // Only the requested columns, one row beyond the page to derive hasNext
+            List<Map<String, Object>> rows = entityRepository.findFields(specification, fields.columns(), sort, (long) pageNo * pageSize, pageSize + 1);
+            pageResponse.setHasNext(rows.size() > pageSize);
+            pageResponse.setData(rows.size() > pageSize ? rows.subList(0, pageSize) : rows);
+            pageResponse.setTotalPages(totalPages(countMode, criteria, specification, pageSize));
+            logger.info("Fetched {} Entity rows on page {} with size {}", pageResponse.getData().size(), pageNo, pageSize);
+            return pageResponse;
+        }
+
+        if (countMode == CountMode.EXACT) {
+            Page<Entity> entities = entityRepository.findAll(specification, PageRequest.of(pageNo, pageSize, sort));
+            pageResponse.setData(entities.toList());
+            pageResponse.setTotalPages(entities.getTotalPages());
+            pageResponse.setHasNext(entities.hasNext());
+            logger.info("Fetched {} Entities on page {} with size {}", entities.getTotalElements(), pageNo, pageSize);
+            return pageResponse;
         }
 
-        // Create Pageable instance with sorting
-        PageRequest pageRequest = PageRequest.of(pageNo, pageSize, sort);
+        // Offset window: fetches pageSize + 1 rows to derive hasNext, no COUNT query
+        ScrollPosition position = pageNo == 0 ? ScrollPosition.offset() : ScrollPosition.offset((long) pageNo * pageSize - 1);
+        Window<Entity> entities = entityRepository.findBy(specification, query -> query.sortBy(sort).limit(pageSize).scroll(position));
+        pageResponse.setData(entities.getContent());
+        pageResponse.setHasNext(entities.hasNext());
 
-        Page<Entity> entities;
+        pageResponse.setTotalPages(totalPages(countMode, criteria, specification, pageSize));
 
-        if (entityType != null && !entityType.isEmpty()) {
-            // Filter by entityType if provided
-            entities = entityRepository.findByEntityType(Entity.EntityType.valueOf(entityType), pageRequest);
-        } else if (name != null && !name.isEmpty()) {
-            // Filter by name if provided
-            entities = entityRepository.findByNameContainingIgnoreCase(name, pageRequest);
+        logger.info("Fetched {} Entities on page {} with size {}", entities.size(), pageNo, pageSize);
+        return pageResponse;
+    }
+
+    // Null for NONE; CACHED reads the per-type counters when only the type is filtered, else reuses a recent count
+    private Integer totalPages(CountMode countMode, EntityCriteria criteria, Specification<Entity> specification, int pageSize) {
+        long total;
+        if (countMode == CountMode.EXACT) {
+            total = entityRepository.count(specification);
+        } else if (countMode == CountMode.CACHED && criteria.hasOnlyTypeFilter() && entityTypeCounters.isReady()) {
+            total = entityTypeCounters.count(criteria.getEntityType());
+        } else if (countMode == CountMode.CACHED) {
+            total = entityCountCache.get(criteria.toString(), () -> entityRepository.count(specification));
         } else {
-            // No filter, fetch all entities
-            entities = entityRepository.findAll(pageRequest);
+            return null;
+        }
+        return (int) ((total + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Fetches a page of entities using keyset (cursor) pagination.
+     * Every page, with or without fields, is an index range scan on (sortKey, entityId) starting at
+     * the cursor, so page N costs the same as page 1.
+     * @param after Opaque cursor returned as nextCursor by the previous page, empty for the first page.
+     * @param criteria Filters to AND together (type, name, created/updated date ranges)
+     * @param pageSize Number of records per page
+     * @param sortBy Field to sort by: createdAt (default) or updatedAt
+     * @param direction Sort direction: asc (default) or desc
+     * @param fields Attributes to select and return per row, or null for full entities.
+     * @return A PageResponse containing the entities and the cursor of the next page, if any.
+     * @throws ValidationException If the cursor is malformed or was issued for another sort.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse getAllEntityAfter(String after, EntityCriteria criteria, int pageSize, String sortBy, String direction, EntityFields fields) throws ValidationException {
+        if (logger.isInfoEnabled()) {
+            logger.info("Fetching Entities after cursor: {}, pageSize: {}, criteria: {}, sortBy: {}, direction: {}, fields: {}", after, pageSize, criteria, sortBy, direction, fields);
+        }
+
+        Sort sort = sortOf(sortBy, direction);
+        Sort.Order order = sort.iterator().next();
+
+        EntityCursor cursor = null;
+        if (after != null && !after.isEmpty()) {
+            cursor = EntityCursor.decode(after);
+            if (!order.getProperty().equals(cursor.getSortBy()) || order.getDirection() != cursor.getDirection()) {
+                throw new ValidationException("Cursor was issued for sortBy " + cursor.getSortBy() + " " + cursor.getDirection());
+            }
         }
 
         PageResponse pageResponse = new PageResponse();
-        pageResponse.setData(entities.toList());
-        pageResponse.setPageNumber(pageNo);
         pageResponse.setPageSize(pageSize);
-        pageResponse.setTotalPages(entities.getTotalPages());
+        pageResponse.setTotalPages(null);
+
+        // Entity rows and fields= rows continue after the cursor with the same predicate and its range
+        // start; Spring Data's own keyset scroll only has the OR form, which gives none
+        Specification<Entity> specification = EntitySpecifications.matching(criteria);
+        if (cursor != null) {
+            specification = specification.and(EntitySpecifications.after(cursor));
+        }
 
-        logger.info("Fetched {} Entities on page {} with size {}", entities.getTotalElements(), pageNo, pageSize);
+        if (fields != null) {
+            // The sort key is selected as well: the next cursor is built from the last row
+            List<Map<String, Object>> rows = entityRepository.findFields(specification, fields.columns(order.getProperty()), sort, 0, pageSize + 1);
+            boolean hasNext = rows.size() > pageSize;
+            List<Map<String, Object>> page = hasNext ? rows.subList(0, pageSize) : rows;
+            pageResponse.setData(page.stream().map(fields::project).toList());
+            pageResponse.setHasNext(hasNext);
+            if (hasNext && !page.isEmpty()) {
+                pageResponse.setNextCursor(EntityCursor.after(order.getProperty(), order.getDirection(), page.get(page.size() - 1)).encode());
+            }
+            logger.info("Fetched {} Entity rows after cursor with size {}", page.size(), pageSize);
+            return pageResponse;
+        }
+
+        // Scrolls from the start of what the specification matches, i.e. right after the cursor
+        Window<Entity> entities = entityRepository.findBy(specification,
+                query -> query.sortBy(sort).limit(pageSize).scroll(ScrollPosition.keyset()));
+
+        pageResponse.setData(entities.getContent());
+        pageResponse.setHasNext(entities.hasNext());
+        if (entities.hasNext() && !entities.isEmpty()) {
+            Entity last = entities.getContent().get(entities.size() - 1);
+            pageResponse.setNextCursor(EntityCursor.after(order.getProperty(), order.getDirection(), last).encode());
+        }
+
+        logger.info("Fetched {} Entities after cursor with size {}", entities.size(), pageSize);
         return pageResponse;
     }
 
+    // Sorts on an indexed column, with entityId as tiebreaker in the same direction
+    private static Sort sortOf(String sortBy, String direction) {
+        String sortKey = "updatedAt".equalsIgnoreCase(sortBy) ? "updatedAt" : "createdAt";
+        Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(new Sort.Order(sortDirection, sortKey), new Sort.Order(sortDirection, "entityId"));
+    }
 
     /**
-     * Updates an existing entity with the given ID.
+     * Updates an existing entity with the given ID in a single UPDATE statement, which also
+     * returns the type it replaced, so a type change is counted right away.
      * @param id  The ID of the entity to update.
      * @param entityDTO The new details for the entity.
+     * @param expectedVersion The version from the client's If-Match, or null to overwrite unconditionally.
+     * @throws EntityNotFoundException If no entity has the given ID.
+     * @throws PreconditionFailedException If the entity was changed since the expected version.
      */
     @Override
-    public void updateEntity(Long id, EntityDTO entityDTO) {
+    public void updateEntity(Long id, EntityDTO entityDTO, Long expectedVersion) {
         logger.info("Updating Entity with ID: {}", id);
-        Entity entity = entityRepository.getReferenceById(id);
-        entity.setName(entityDTO.getName());
-        entity.setDescription(entityDTO.getDescription());
-        entity.setEntityType(entityDTO.getEntityType());
-        entityRepository.save(entity);
+        Optional<ReplacedType> replaced = entityRepository.update(id, entityDTO, expectedVersion);
+        entityCache.invalidate(id);
+        if (replaced.isEmpty()) {
+            throw notUpdated(id, expectedVersion);
+        }
+        entityTypeCounters.changed(replaced.get().entityType(), entityDTO.getEntityType());
+        eventPublisher.publishEvent(EntityChangeEvent.of(EntityChangeEvent.Change.UPDATED, id));
         logger.info("Entity with ID: {} updated successfully", id);
     }
 
     /**
-     *  Deletes an entity by its unique ID.
+     * Applies a partial update to the entity with the given ID in a single UPDATE statement.
+     * Like updateEntity, a type change is counted from the type the statement returns.
+     * @param id The ID of the entity to update.
+     * @param patchDTO The fields to change; null fields are left unchanged.
+     * @param expectedVersion The version from the client's If-Match, or null to update unconditionally.
+     * @throws ValidationException If no field to change is provided.
+     * @throws EntityNotFoundException If no entity has the given ID.
+     * @throws PreconditionFailedException If the entity was changed since the expected version.
+     */
+    @Override
+    public void patchEntity(Long id, EntityPatchDTO patchDTO, Long expectedVersion) throws ValidationException {
+        logger.info("Patching Entity with ID: {}", id);
+        if (patchDTO == null || patchDTO.isEmpty()) {
+            throw new ValidationException("At least one field must be provided");
+        }
+        Optional<ReplacedType> replaced = entityRepository.patch(id, patchDTO, expectedVersion);
+        entityCache.invalidate(id);
+        if (replaced.isEmpty()) {
+            throw notUpdated(id, expectedVersion);
+        }
+        if (patchDTO.getEntityType() != null) {
+            entityTypeCounters.changed(replaced.get().entityType(), patchDTO.getEntityType());
+        }
+        eventPublisher.publishEvent(EntityChangeEvent.of(EntityChangeEvent.Change.UPDATED, id));
+        logger.info("Entity with ID: {} patched successfully", id);
+    }
+
+    // Only on the failure path: tells a missing row apart from a version mismatch
+    private RuntimeException notUpdated(Long id, Long expectedVersion) {
+        boolean exists = false;
+        if (expectedVersion != null) {
+            // On the primary: a lagging replica may not have the row yet and turn a 412 into a 404
+            try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+                exists = entityRepository.existsById(id);
+            }
+        }
+        if (exists) {
+            logger.warn("Entity with ID {} was modified after version {}", id, expectedVersion);
+            return new PreconditionFailedException("Entity with id " + id + " was modified after version " + expectedVersion);
+        }
+        logger.warn("Entity with ID {} not found", id);
+        return new EntityNotFoundException("Entity not found with id: " + id);
+    }
+
+    /**
+     *  Deletes an entity by its unique ID with a single DELETE statement, which also returns the
+     *  type of the deleted entity for the per-type counters.
      * @param id The ID of the entity to delete.
      */
     @Override
     public void deleteEntityById(Long id) {
         logger.info("Attempting to delete Entity with ID: {}", id);
 
-        Optional<Entity> user = entityRepository.findById(id);
+        Optional<ReplacedType> deleted = entityRepository.removeById(id);
+        entityCache.invalidate(id);
 
-        if (user.isPresent()) {
-            entityRepository.deleteById(id);
+        if (deleted.isPresent()) {
+            entityTypeCounters.add(deleted.get().entityType(), -1);
+            eventPublisher.publishEvent(EntityChangeEvent.of(EntityChangeEvent.Change.DELETED, id));
             logger.info("Entity with ID {} deleted successfully", id);
         } else {
             logger.warn("Entity with ID {} not found", id);
@@ -138,4 +395,44 @@ public class EntityServiceImpl implements EntityService {
         }
     }
 
+    /**
+     * Deletes every entity matching the filters, in chunks of entity.delete.chunk-size rows.
+     * Each chunk is its own short transaction, so a large purge neither holds long locks nor
+     * builds up one huge transaction.
+     * @param entityType Optional filter by entity type.
+     * @param updatedBefore Optional filter: only entities last updated before this date.
+     * @return The number of deleted entities.
+     * @throws ValidationException If no filter is given or the entity type is unknown.
+     */
+    @Override
+    public long deleteEntities(String entityType, LocalDate updatedBefore) throws ValidationException {
+        logger.info("Deleting Entities with entityType: {}, updatedBefore: {}", entityType, updatedBefore);
+        Entity.EntityType type = EntityCriteria.parseEntityType(entityType);
+        if (type == null && updatedBefore == null) {
+            throw new ValidationException("At least one filter must be provided");
+        }
+
+        long total = 0;
+        long afterId = Long.MIN_VALUE;
+        List<Long> ids;
+        do {
+            ids = entityRepository.findIdsToDelete(afterId, type, updatedBefore, deleteChunkSize);
+            if (!ids.isEmpty()) {
+                total += entityRepository.removeAllById(ids);
+                entityCache.invalidateAll(ids);
+                ids.forEach(deleted -> eventPublisher.publishEvent(EntityChangeEvent.of(EntityChangeEvent.Change.DELETED, deleted)));
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == deleteChunkSize);
+        if (type != null) {
+            entityTypeCounters.add(type, -total);
+        } else if (total > 0) {
+            // The deleted rows may have any type
+            entityTypeCounters.reconcile();
+        }
+
+        logger.info("Deleted {} Entities", total);
+        return total;
+    }
+
 }
@@ -0,0 +1,156 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.datasource.ReadYourWrites;
+import com.example.Demo.model.common.EntityStatsResponse;
+import com.example.Demo.model.common.EntityTypeCount;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.repository.EntityRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of entities per type, kept up to date by the writes of this instance and reconciled
+ * against a GROUP BY count every entity.stats.reconcile-interval. The reconciliation also
+ * picks up writes of other instances and corrects any drift. LongAdder cells keep concurrent
+ * writers from contending on a single counter.
+ */
+@Component
+public class EntityTypeCounters implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityTypeCounters.class);
+
+    private final Map<Entity.EntityType, LongAdder> counters = new EnumMap<>(Entity.EntityType.class);
+
+    private final LongAdder untyped = new LongAdder();
+
+    @Autowired
+    private EntityRepository entityRepository;
+
+    private volatile Instant reconciledAt;
+
+    public EntityTypeCounters() {
+        for (Entity.EntityType type : Entity.EntityType.values()) {
+            counters.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Records committed creations (positive delta) or removals (negative delta).
+     * @param entityType The type of the entities; null for entities without a type.
+     * @param delta The change of the count.
+     */
+    public void add(Entity.EntityType entityType, long delta) {
+        counterOf(entityType).add(delta);
+    }
+
+    /**
+     * Records a committed type change of one entity; a no-op when the type stayed the same.
+     * @param from The type before the update.
+     * @param to The type after the update.
+     */
+    public void changed(Entity.EntityType from, Entity.EntityType to) {
+        if (!Objects.equals(from, to)) {
+            add(from, -1);
+            add(to, 1);
+        }
+    }
+
+    /**
+     * @return False until the first reconciliation, when the counters do not reflect the table yet.
+     */
+    public boolean isReady() {
+        return reconciledAt != null;
+    }
+
+    /**
+     * @param entityType The type to count, or null for all entities.
+     * @return The current count.
+     */
+    public long count(Entity.EntityType entityType) {
+        if (entityType != null) {
+            return counters.get(entityType).sum();
+        }
+        long total = untyped.sum();
+        for (LongAdder counter : counters.values()) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    public EntityStatsResponse stats() {
+        Map<Entity.EntityType, Long> counts = new EnumMap<>(Entity.EntityType.class);
+        counters.forEach((type, counter) -> counts.put(type, counter.sum()));
+        long untypedCount = untyped.sum();
+        long total = untypedCount + counts.values().stream().mapToLong(Long::longValue).sum();
+        return new EntityStatsResponse(counts, untypedCount, total, reconciledAt);
+    }
+
+    /**
+     * Replaces the counters with a fresh count from the database. Writes that commit while the
+     * count runs may be off by one until the next reconciliation.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${entity.stats.reconcile-interval:60s}")
+    public void reconcile() {
+        Map<Entity.EntityType, Long> before = new EnumMap<>(Entity.EntityType.class);
+        counters.forEach((type, counter) -> before.put(type, counter.sum()));
+        long untypedBefore = untyped.sum();
+
+        List<EntityTypeCount> actual;
+        // From the primary: a lagging replica would undo increments of writes it has not seen yet
+        try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+            actual = entityRepository.countByEntityType();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not reconcile entity counters: {}", ex.getMessage());
+            return;
+        }
+
+        Map<Entity.EntityType, Long> counted = new EnumMap<>(Entity.EntityType.class);
+        long untypedCounted = 0;
+        for (EntityTypeCount count : actual) {
+            if (count.entityType() == null) {
+                untypedCounted = count.count();
+            } else {
+                counted.put(count.entityType(), count.count());
+            }
+        }
+        // Corrects by the difference instead of resetting, so increments made meanwhile are kept
+        long drift = 0;
+        for (Entity.EntityType type : Entity.EntityType.values()) {
+            long correction = counted.getOrDefault(type, 0L) - before.get(type);
+            counters.get(type).add(correction);
+            drift += Math.abs(correction);
+        }
+        untyped.add(untypedCounted - untypedBefore);
+        drift += Math.abs(untypedCounted - untypedBefore);
+
+        if (reconciledAt != null && drift > 0) {
+            logger.info("Entity counters corrected by {} after reconciliation", drift);
+        }
+        reconciledAt = Instant.now();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counters.forEach((type, counter) -> Gauge.builder("entities.count", counter, LongAdder::sum)
+                .description("Number of entities per type")
+                .tag("type", type.name())
+                .register(registry));
+    }
+
+    private LongAdder counterOf(Entity.EntityType entityType) {
+        return entityType == null ? untyped : counters.get(entityType);
+    }
+}
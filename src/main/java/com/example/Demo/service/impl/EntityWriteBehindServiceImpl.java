@@ -0,0 +1,430 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.Exception.TooManyRequestsException;
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.datasource.ReadYourWrites;
+import com.example.Demo.model.common.EntityChangeEvent;
+import com.example.Demo.model.common.WriteBehindStatus;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.repository.EntityRepository;
+import com.example.Demo.service.EntityWriteBehindService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//write-behind creation service implementation class
+@Service
+public class EntityWriteBehindServiceImpl implements EntityWriteBehindService, SmartLifecycle, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityWriteBehindServiceImpl.class);
+
+    // Same columns JPA writes on persist; with reWriteBatchedInserts a batch is sent as multi-row INSERTs
+    private static final String INSERT = "insert into entities "
+            + "(entity_id, name, description, entity_type, created_at, updated_at, version, modified_at) "
+            + "values (?, ?, ?, ?, ?, ?, 0, ?)";
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private static final int RECOVERY_CHUNK = 1000;
+
+    @Autowired
+    private EntityIdAllocator entityIdAllocator;
+    @Autowired
+    private EntityRepository entityRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityCache entityCache;
+    @Autowired
+    private EntityTypeCounters entityTypeCounters;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final Path journalPath;
+
+    private final BlockingQueue<WriteBehindJournal.Entry> queue;
+
+    // Accepted but not inserted yet, for the status URL
+    private final Map<Long, WriteBehindJournal.Entry> pending = new ConcurrentHashMap<>();
+
+    // Recent outcomes; older ones are answered from the table
+    private final Cache<Long, WriteBehindStatus> outcomes = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    // Makes the capacity check, the journal append and the enqueue one step, so the journal
+    // never holds an entry that was rejected
+    private final Object acceptLock = new Object();
+
+    private WriteBehindJournal journal;
+
+    private Thread writer;
+
+    private volatile boolean accepting;
+
+    private volatile boolean stopping;
+
+    private Counter rejected;
+
+    public EntityWriteBehindServiceImpl(@Value("${entity.write-behind.enabled:true}") boolean enabled,
+                                        @Value("${entity.write-behind.queue-capacity:10000}") int queueCapacity,
+                                        @Value("${entity.write-behind.batch-size:500}") int batchSize,
+                                        @Value("${entity.write-behind.journal:entity-write-behind.journal}") Path journalPath) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.journalPath = journalPath;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts an entity for asynchronous creation. The entity gets its id right away, is forced
+     * to the journal and queued; the background writer inserts it with the next batch.
+     * @param entityDTO The data transfer object containing entity details.
+     * @return The PENDING status with the assigned id.
+     * @throws ValidationException If the entity name is null.
+     * @throws TooManyRequestsException If the queue is full or the writer is not running.
+     */
+    @Override
+    @Timed(value = "entity.service", histogram = true)
+    public WriteBehindStatus submit(EntityDTO entityDTO) throws ValidationException {
+        if (entityDTO == null || entityDTO.getName() == null) {
+            throw new ValidationException("Entity name cannot be null");
+        }
+        WriteBehindJournal.Entry entry = new WriteBehindJournal.Entry(entityIdAllocator.next(), entityDTO.getName(),
+                entityDTO.getDescription(), entityDTO.getEntityType(), Instant.now());
+        long position;
+        try {
+            synchronized (acceptLock) {
+                if (!accepting || queue.remainingCapacity() == 0) {
+                    if (rejected != null) {
+                        rejected.increment();
+                    }
+                    throw new TooManyRequestsException("Write-behind queue is full, retry later");
+                }
+                position = journal.append(entry);
+                pending.put(entry.id(), entry);
+                queue.add(entry);
+            }
+            journal.sync(position);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not journal entity " + entry.id(), ex);
+        }
+        logger.info("Entity {} accepted for write-behind creation", entry.id());
+        return new WriteBehindStatus(entry.id(), WriteBehindStatus.State.PENDING, null);
+    }
+
+    /**
+     * @param id The id returned by {@link #submit(EntityDTO)}.
+     * @return Whether the entity is still pending, was created or failed; empty if the id is unknown.
+     */
+    @Override
+    @Timed(value = "entity.service", histogram = true)
+    public Optional<WriteBehindStatus> getStatus(Long id) {
+        if (pending.containsKey(id)) {
+            return Optional.of(new WriteBehindStatus(id, WriteBehindStatus.State.PENDING, null));
+        }
+        WriteBehindStatus outcome = outcomes.getIfPresent(id);
+        if (outcome != null) {
+            return Optional.of(outcome);
+        }
+        // Outcome expired or written before a restart
+        return entityRepository.existsById(id)
+                ? Optional.of(new WriteBehindStatus(id, WriteBehindStatus.State.CREATED, null))
+                : Optional.empty();
+    }
+
+    /**
+     * Opens the journal and starts the writer. Whatever a previous run accepted but did not
+     * insert is handed to the writer, which inserts it before anything submitted now; a database
+     * that is unavailable at boot therefore delays the replay but not the startup.
+     */
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        List<WriteBehindJournal.Entry> journaled;
+        try {
+            journal = new WriteBehindJournal(journalPath, objectMapper);
+            journaled = journal.readAll();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open write-behind journal " + journalPath, ex);
+        }
+        journaled.forEach(entry -> pending.put(entry.id(), entry));
+        stopping = false;
+        accepting = true;
+        writer = new Thread(() -> {
+            if (replay(journaled)) {
+                drain();
+            }
+        }, "entity-write-behind");
+        writer.start();
+        logger.info("Write-behind writer started, journal {}, {} entries to replay", journalPath.toAbsolutePath(), journaled.size());
+    }
+
+    /**
+     * Stops accepting, lets the writer insert what is queued and closes the journal. Entries the
+     * writer could not insert stay in the journal for the next start.
+     */
+    @Override
+    public void stop() {
+        accepting = false;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            stopping = true;
+            writer.interrupt();
+            writer = null;
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+                logger.warn("Could not close write-behind journal: {}", ex.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    // Starts before and stops after the web server, so no request finds the writer gone
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("entities.write_behind.queue", queue, BlockingQueue::size)
+                .description("Entities accepted for write-behind creation and not inserted yet")
+                .register(registry);
+        rejected = Counter.builder("entities.write_behind.rejected")
+                .description("Write-behind creations rejected with 429 because the queue was full")
+                .register(registry);
+    }
+
+    // Writer loop: takes whatever has queued up while the previous batch was being inserted
+    private void drain() {
+        List<WriteBehindJournal.Entry> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            WriteBehindJournal.Entry first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                break;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            if (!write(batch)) {
+                // Stopped while the database was unavailable; the journal keeps the rest
+                return;
+            }
+            batch.clear();
+            compactJournal();
+        }
+    }
+
+    // Once the queue is empty everything journaled has been inserted
+    private void compactJournal() {
+        synchronized (acceptLock) {
+            if (queue.isEmpty()) {
+                try {
+                    journal.truncate();
+                } catch (IOException ex) {
+                    logger.warn("Could not truncate write-behind journal: {}", ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the entries in one transaction with a JDBC batch. A batch the database rejects is
+     * retried row by row, so one bad row does not fail the others; while the database is
+     * unavailable the batch is retried until the service stops.
+     * @return False if the service stopped before the entries could be inserted.
+     */
+    private boolean write(List<WriteBehindJournal.Entry> batch) {
+        while (!stopping) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, batch, batch.size(),
+                        (statement, entry) -> {
+                            LocalDate acceptedOn = LocalDate.ofInstant(entry.acceptedAt(), ZoneId.systemDefault());
+                            statement.setLong(1, entry.id());
+                            statement.setString(2, entry.name());
+                            statement.setString(3, entry.description());
+                            statement.setString(4, entry.entityType() == null ? null : entry.entityType().name());
+                            statement.setDate(5, Date.valueOf(acceptedOn));
+                            statement.setDate(6, Date.valueOf(acceptedOn));
+                            statement.setTimestamp(7, Timestamp.from(entry.acceptedAt()));
+                        }));
+                created(batch);
+                return true;
+            } catch (DataIntegrityViolationException ex) {
+                if (batch.size() == 1) {
+                    failed(batch.get(0), ex);
+                    return true;
+                }
+                for (WriteBehindJournal.Entry entry : batch) {
+                    if (!write(List.of(entry))) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (DataAccessException ex) {
+                logger.warn("Write-behind insert of {} entities failed, retrying in {}: {}", batch.size(), RETRY_DELAY, ex.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void created(List<WriteBehindJournal.Entry> batch) {
+        Map<Entity.EntityType, Long> typeDeltas = new HashMap<>();
+        for (WriteBehindJournal.Entry entry : batch) {
+            // Drops a "not found" cached by a client polling the entity before it was inserted
+            entityCache.invalidate(entry.id());
+            eventPublisher.publishEvent(EntityChangeEvent.of(EntityChangeEvent.Change.CREATED, entry.id()));
+            typeDeltas.merge(entry.entityType(), 1L, Long::sum);
+        }
+        typeDeltas.forEach(entityTypeCounters::add);
+        // Reported as CREATED once the cache, the counters and the change feed reflect the insert
+        for (WriteBehindJournal.Entry entry : batch) {
+            outcomes.put(entry.id(), new WriteBehindStatus(entry.id(), WriteBehindStatus.State.CREATED, null));
+            pending.remove(entry.id());
+        }
+        logger.info("Write-behind inserted {} entities", batch.size());
+    }
+
+    private void failed(WriteBehindJournal.Entry entry, DataIntegrityViolationException ex) {
+        logger.warn("Write-behind insert of entity {} rejected: {}", entry.id(), ex.getMostSpecificCause().getMessage());
+        outcomes.put(entry.id(), new WriteBehindStatus(entry.id(), WriteBehindStatus.State.FAILED,
+                ex.getMostSpecificCause().getMessage()));
+        pending.remove(entry.id());
+    }
+
+    /**
+     * Inserts the journaled entries of a previous run that are not in the table yet, on the writer
+     * thread before it takes the first submission. The journal is only truncated once all of them
+     * are inserted, and only if nothing new is queued by then; otherwise the next batch does it.
+     * @return False if the service stopped first; the journal then still holds the entries.
+     */
+    private boolean replay(List<WriteBehindJournal.Entry> entries) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+        int replayed = 0;
+        for (int from = 0; from < entries.size(); from += RECOVERY_CHUNK) {
+            List<WriteBehindJournal.Entry> chunk = entries.subList(from, Math.min(from + RECOVERY_CHUNK, entries.size()));
+            Set<Long> existing = findExisting(chunk);
+            if (existing == null) {
+                return false;
+            }
+            List<WriteBehindJournal.Entry> missing = new ArrayList<>();
+            for (WriteBehindJournal.Entry entry : chunk) {
+                if (existing.contains(entry.id())) {
+                    pending.remove(entry.id());
+                } else {
+                    missing.add(entry);
+                }
+            }
+            if (!missing.isEmpty()) {
+                if (!write(missing)) {
+                    return false;
+                }
+                replayed += missing.size();
+            }
+        }
+        compactJournal();
+        logger.info("Write-behind journal replayed: {} of {} entries were not inserted yet", replayed, entries.size());
+        return true;
+    }
+
+    /**
+     * Which of the entries are in the table already; retried like an insert while the database
+     * is unavailable.
+     * @return The ids found, or null if the service stopped first.
+     */
+    private Set<Long> findExisting(List<WriteBehindJournal.Entry> entries) {
+        List<Long> ids = entries.stream().map(WriteBehindJournal.Entry::id).toList();
+        while (!stopping) {
+            // From the primary: a lagging replica would have rows replayed twice
+            try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+                return new HashSet<>(entityRepository.findExistingIds(ids));
+            } catch (DataAccessException ex) {
+                logger.warn("Write-behind journal replay could not reach the database, retrying in {}: {}", RETRY_DELAY, ex.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
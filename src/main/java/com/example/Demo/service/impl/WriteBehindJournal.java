@@ -0,0 +1,134 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.model.dao.Entity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only spill file of entities accepted for write-behind creation, one JSON object per
+ * line. An entry is forced to disk before its 202 is sent, so accepted writes survive a crash;
+ * the file is truncated once everything in it has been inserted.
+ * Concurrent {@link #sync(long)} calls are group-committed: while one force runs, the appends
+ * that arrive meanwhile queue up and are all covered by the next one.
+ */
+class WriteBehindJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindJournal.class);
+
+    /**
+     * An accepted entity with its pre-allocated id.
+     */
+    record Entry(Long id, String name, String description, Entity.EntityType entityType, Instant acceptedAt) {
+    }
+
+    private final Path path;
+
+    private final ObjectMapper objectMapper;
+
+    private final FileChannel channel;
+
+    // Bytes ever appended; unlike the file size it does not go back on truncation
+    private long appended;
+
+    private final Object syncLock = new Object();
+
+    // Guarded by syncLock: appended position known to be on disk
+    private long synced;
+
+    WriteBehindJournal(Path path, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+    }
+
+    /**
+     * Reads the entries left over from a previous run. A torn last line (a crash during the
+     * append, before the entry was acknowledged) is skipped.
+     * @return The entries in append order.
+     */
+    synchronized List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel.position(0), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                entries.add(objectMapper.readValue(line, Entry.class));
+            } catch (JsonProcessingException ex) {
+                logger.warn("Skipping unreadable write-behind journal line in {}: {}", path, ex.getOriginalMessage());
+            }
+        }
+        channel.position(channel.size());
+        return entries;
+    }
+
+    /**
+     * Writes an entry to the end of the file, without forcing it to disk.
+     * @return The position to pass to {@link #sync(long)}.
+     */
+    synchronized long append(Entry entry) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        appended += line.remaining();
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        return appended;
+    }
+
+    /**
+     * Returns once everything appended up to the position is on disk.
+     * @param position A position returned by {@link #append(Entry)}.
+     */
+    void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                // Covered by a force another thread ran while this one waited
+                return;
+            }
+            long target;
+            synchronized (this) {
+                target = appended;
+            }
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    /**
+     * Drops every entry; the caller makes sure all of them have been inserted.
+     */
+    synchronized void truncate() throws IOException {
+        if (channel.size() > 0) {
+            channel.truncate(0);
+            channel.position(0);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.Demo.trace;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records which service method is running on the current thread, so every SQL statement can be
+ * attributed to the service call that issued it.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "sql.trace.enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceMethodTagger {
+
+    @Around("execution(public * com.example.Demo.service.impl.*ServiceImpl.*(..))")
+    public Object tag(ProceedingJoinPoint joinPoint) throws Throwable {
+        SqlTrace.enterMethod(joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            SqlTrace.exitMethod();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.Demo.trace;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Captures the execution plan of slow SELECT statements with a plain EXPLAIN (the statement
+ * itself is not executed again). Plans are captured on a single background thread with a short
+ * queue, never on the request thread, and statements that only differ in literals or in the
+ * length of an IN list share a fingerprint that is explained at most once per interval.
+ * When the queue is full the statement is not explained.
+ */
+public class SqlExplainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlExplainer.class);
+
+    private static final int MAX_FINGERPRINTS = 1_000;
+
+    private static final int QUEUE_CAPACITY = 16;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+
+    private final DataSource dataSource;
+
+    // Fingerprints explained within the interval
+    private final Cache<String, Boolean> explained;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param dataSource The unwrapped DataSource, so EXPLAIN statements are not traced themselves.
+     * @param interval How long a fingerprint is not explained again.
+     */
+    public SqlExplainer(DataSource dataSource, Duration interval) {
+        this.dataSource = dataSource;
+        this.explained = Caffeine.newBuilder()
+                .maximumSize(MAX_FINGERPRINTS)
+                .expireAfterWrite(interval)
+                .build();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sql-explain-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                threadFactory, new ThreadPoolExecutor.DiscardPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues the EXPLAIN of a slow statement and returns at once.
+     * @param statement The slow statement, with the parameters it ran with.
+     */
+    void submit(SqlTrace.Statement statement) {
+        if (!statement.sql().stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+            return;
+        }
+        if (explained.asMap().putIfAbsent(fingerprint(statement.sql()), Boolean.TRUE) != null) {
+            return;
+        }
+        executor.execute(() -> explain(statement));
+    }
+
+    static String fingerprint(String sql) {
+        String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+        fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+        return PARAMETER_LIST.matcher(fingerprint).replaceAll("?");
+    }
+
+    private void explain(SqlTrace.Statement statement) {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            List<Object> parameters = statement.parameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                explain.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet resultSet = explain.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append("\n\t").append(resultSet.getString(1));
+                }
+            }
+            logger.warn("Plan of slow SQL from {} ({} ms): {}{}", statement.method(), statement.elapsedMillis(),
+                    statement.sql(), plan);
+        } catch (SQLException ex) {
+            logger.warn("Could not explain SQL from {}: {}", statement.method(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.Demo.trace;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Thread-bound SQL trace state: the service method currently executing (set by
+ * {@link ServiceMethodTagger}) and the statements of the current HTTP request (collected by
+ * {@link SqlTraceListener} while {@link SqlTraceFilter} has a trace open).
+ */
+public final class SqlTrace {
+
+    static final String NO_METHOD = "none";
+
+    private static final ThreadLocal<Deque<String>> METHODS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private static final ThreadLocal<SqlTrace> CURRENT = new ThreadLocal<>();
+
+    private final List<Statement> statements = new ArrayList<>();
+
+    private SqlTrace() {
+    }
+
+    static void enterMethod(String method) {
+        METHODS.get().push(method);
+    }
+
+    static void exitMethod() {
+        Deque<String> methods = METHODS.get();
+        methods.pop();
+        if (methods.isEmpty()) {
+            METHODS.remove();
+        }
+    }
+
+    /**
+     * @return The outermost service method on this thread, e.g. EntityServiceImpl.getAllEntity.
+     */
+    static String currentMethod() {
+        Deque<String> methods = METHODS.get();
+        return methods.isEmpty() ? NO_METHOD : methods.peekLast();
+    }
+
+    static SqlTrace begin() {
+        SqlTrace trace = new SqlTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static SqlTrace current() {
+        return CURRENT.get();
+    }
+
+    void add(Statement statement) {
+        statements.add(statement);
+    }
+
+    List<Statement> getStatements() {
+        return statements;
+    }
+
+    long getTotalMillis() {
+        return statements.stream().mapToLong(Statement::elapsedMillis).sum();
+    }
+
+    /**
+     * One executed statement.
+     * @param method The service method it originated from.
+     * @param sql The SQL text with placeholders.
+     * @param parameters The bound parameters of the first parameter set, in index order.
+     * @param elapsedMillis Execution time.
+     */
+    record Statement(String method, String sql, List<Object> parameters, long elapsedMillis) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.Demo.trace;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opens a SQL trace for every request and checks it when the request completes:
+ * more statements than the budget, the same statement repeated (the N+1 pattern) or a statement
+ * slower than the threshold flag the request with a per-service-method breakdown.
+ */
+public class SqlTraceFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTraceFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final int statementBudget;
+
+    private final int repeatThreshold;
+
+    private final long slowQueryMillis;
+
+    private final SqlExplainer explainer;
+
+    /**
+     * @param explainer Captures plans of slow statements in the background, or null to skip EXPLAIN.
+     */
+    public SqlTraceFilter(MeterRegistry meterRegistry, int statementBudget, int repeatThreshold,
+                          Duration slowQueryThreshold, SqlExplainer explainer) {
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+        this.repeatThreshold = repeatThreshold;
+        this.slowQueryMillis = slowQueryThreshold.toMillis();
+        this.explainer = explainer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlTrace trace = SqlTrace.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlTrace.end();
+            check(request, trace);
+        }
+    }
+
+    private void check(HttpServletRequest request, SqlTrace trace) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        int count = trace.getStatements().size();
+        DistributionSummary.builder("sql.statements.per.request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(count);
+        if (count == 0) {
+            return;
+        }
+
+        Map<String, Integer> repeats = new HashMap<>();
+        Map<String, long[]> byMethod = new LinkedHashMap<>();
+        SqlTrace.Statement slowest = null;
+        for (SqlTrace.Statement statement : trace.getStatements()) {
+            repeats.merge(statement.sql(), 1, Integer::sum);
+            long[] totals = byMethod.computeIfAbsent(statement.method(), key -> new long[2]);
+            totals[0]++;
+            totals[1] += statement.elapsedMillis();
+            if (slowest == null || statement.elapsedMillis() > slowest.elapsedMillis()) {
+                slowest = statement;
+            }
+        }
+        String repeated = repeats.entrySet().stream()
+                .filter(entry -> entry.getValue() >= repeatThreshold)
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .findFirst().orElse(null);
+        boolean overBudget = count > statementBudget;
+        boolean slow = slowest.elapsedMillis() >= slowQueryMillis;
+
+        if (overBudget || repeated != null || slow) {
+            StringBuilder breakdown = new StringBuilder();
+            byMethod.forEach((method, totals) ->
+                    breakdown.append(' ').append(method).append('=').append(totals[0]).append('/').append(totals[1]).append("ms"));
+            logger.warn("{} {} ran {} statements in {} ms (budget {}){}{}; by method:{}",
+                    request.getMethod(), uri, count, trace.getTotalMillis(), statementBudget,
+                    repeated == null ? "" : "; repeated (possible N+1): " + repeated,
+                    slow ? "; slowest " + slowest.elapsedMillis() + " ms: " + slowest.sql() : "",
+                    breakdown);
+            if (slow && explainer != null) {
+                explainer.submit(slowest);
+            }
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("{} {} ran {} statements in {} ms", request.getMethod(), uri, count, trace.getTotalMillis());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.Demo.trace;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JDBC statement, tags it with the originating service method and adds it to the
+ * current request trace. Statements slower than the threshold are logged right away.
+ */
+public class SqlTraceListener implements QueryExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTraceListener.class);
+
+    private final long slowQueryMillis;
+
+    public SqlTraceListener(Duration slowQueryThreshold) {
+        this.slowQueryMillis = slowQueryThreshold.toMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String method = SqlTrace.currentMethod();
+        long elapsed = execInfo.getElapsedTime();
+        SqlTrace trace = SqlTrace.current();
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery();
+            // Registered on the global registry: the DataSource is wrapped before Boot's registry exists
+            Timer.builder("sql.statements")
+                    .description("JDBC statement execution time by originating service method")
+                    .tag("method", method)
+                    .tag("type", statementType(sql))
+                    .register(Metrics.globalRegistry)
+                    .record(elapsed, TimeUnit.MILLISECONDS);
+            if (trace != null) {
+                trace.add(new SqlTrace.Statement(method, sql, firstParameters(queryInfo), elapsed));
+            }
+        }
+        if (elapsed >= slowQueryMillis) {
+            logger.warn("Slow SQL ({} ms) from {}: {}", elapsed, method,
+                    queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+        }
+    }
+
+    private static String statementType(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = trimmed.indexOf(' ');
+        String keyword = (end < 0 ? trimmed : trimmed.substring(0, end)).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete" -> keyword;
+            default -> "other";
+        };
+    }
+
+    private static List<Object> firstParameters(QueryInfo queryInfo) {
+        List<Object> parameters = new ArrayList<>();
+        if (queryInfo.getParametersList().isEmpty()) {
+            return parameters;
+        }
+        List<ParameterSetOperation> operations = new ArrayList<>(queryInfo.getParametersList().get(0));
+        operations.sort(Comparator.comparingInt(operation -> operation.getArgs()[0] instanceof Integer index ? index : 0));
+        for (ParameterSetOperation operation : operations) {
+            parameters.add(ParameterSetOperation.isSetNullParameterOperation(operation) ? null : operation.getArgs()[1]);
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,24 @@
+-- Runs on every startup after Hibernate has updated the schema; all statements are idempotent.
+-- Statements end with @@ (spring.sql.init.separator), as the DO blocks contain semicolons.
+
+-- Trigram index serving the name filter. EntitySpecifications renders it as
+-- upper(name) like '%TERM%', which no B-tree can serve; a GIN index over the same
+-- expression lets Postgres resolve candidate rows from trigrams instead of scanning the table.
+-- Creating the extension needs the CREATE privilege on the database (pg_trgm is a trusted
+-- extension); on managed databases whose app role lacks it, startup continues without the
+-- index and the name filter scans the table until an owner runs CREATE EXTENSION pg_trgm.
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION WHEN insufficient_privilege OR undefined_file THEN
+    RAISE WARNING 'pg_trgm unavailable (%), the name filter runs without idx_entities_name_trgm', SQLERRM;
+END
+$$@@
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        CREATE INDEX IF NOT EXISTS idx_entities_name_trgm ON entities USING gin (upper(name) gin_trgm_ops);
+    END IF;
+END
+$$@@
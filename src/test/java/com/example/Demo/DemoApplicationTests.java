@@ -3,7 +3,8 @@ package com.example.Demo;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Throwaway signing key; deployments take it from JWT_SECRET
+@SpringBootTest(properties = "security.jwt.secret=dGVzdC1vbmx5LWp3dC1rZXktbm90LWZvci1kZXBsb3ltZW50cw==")
 class DemoApplicationTests {
 
 	@Test
@@ -0,0 +1,161 @@
+package com.example.Demo.benchmark;
+
+import com.example.Demo.DemoApplication;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.repository.EntityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Boots the application against an in-memory H2 database standing in for Postgres, so the
+ * benchmarks exercise the real Spring, Hibernate and Hikari stack without external services.
+ * Benchmarks of Postgres-only features start it against an embedded Postgres instead.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @param database Name of the in-memory database; contexts sharing a name share the data.
+     * @param arguments Extra Spring Boot command-line arguments.
+     * @return The started context; close it to drop the database.
+     */
+    static ConfigurableApplicationContext start(String database, String... arguments) {
+        return start(database, builder -> {
+        }, arguments);
+    }
+
+    /**
+     * @param database Name of the in-memory database; contexts sharing a name share the data.
+     * @param customizer Hook to register initializers or listeners before the context starts.
+     * @param arguments Extra Spring Boot command-line arguments.
+     * @return The started context; close it to drop the database.
+     */
+    static ConfigurableApplicationContext start(String database, Consumer<SpringApplicationBuilder> customizer,
+                                                String... arguments) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                // schema-postgresql.sql creates Postgres-only trigram indexes
+                "--spring.sql.init.mode=never"));
+        args.addAll(Arrays.asList(arguments));
+        return run(database, customizer, args);
+    }
+
+    /**
+     * Boots the application against a real Postgres, for benchmarks of Postgres-only features.
+     * schema-postgresql.sql runs as in production.
+     * @param postgres A started Postgres, e.g. an EmbeddedPostgres.
+     * @param arguments Extra Spring Boot command-line arguments.
+     * @return The started context; close it to drop the schema.
+     */
+    static ConfigurableApplicationContext startPostgres(DataSource postgres, String... arguments) throws SQLException {
+        String url;
+        String username;
+        try (Connection connection = postgres.getConnection()) {
+            url = connection.getMetaData().getURL();
+            username = connection.getMetaData().getUserName();
+        }
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password="));
+        args.addAll(Arrays.asList(arguments));
+        return run("postgres", builder -> {
+        }, args);
+    }
+
+    private static ConfigurableApplicationContext run(String database, Consumer<SpringApplicationBuilder> customizer,
+                                                      List<String> arguments) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                // Own write-behind journal per context, so replays never cross databases
+                "--entity.write-behind.journal=target/write-behind/" + ProcessHandle.current().pid() + "-"
+                        + database.replaceAll("\\W", "_") + ".journal",
+                // Throwaway signing key per context; deployments take it from JWT_SECRET
+                "--security.jwt.secret=" + randomSecret(),
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        args.addAll(arguments);
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DemoApplication.class);
+        customizer.accept(builder);
+        return builder.run(args.toArray(new String[0]));
+    }
+
+    private static String randomSecret() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    /**
+     * Inserts rows with names "Entity 0".."Entity n-1", cycling through the entity types.
+     * @param entityRepository The repository of the started context.
+     * @param rows Number of rows to insert.
+     * @return The ids of the inserted rows.
+     */
+    static long[] seed(EntityRepository entityRepository, int rows) {
+        long[] ids = new long[rows];
+        List<Entity> batch = new ArrayList<>();
+        Entity.EntityType[] types = Entity.EntityType.values();
+        for (int i = 0; i < rows; i++) {
+            batch.add(entity("Entity " + i, types[i % types.length]));
+            if (batch.size() == 1000 || i == rows - 1) {
+                int first = i + 1 - batch.size();
+                List<Entity> saved = entityRepository.saveAll(batch);
+                for (int j = 0; j < saved.size(); j++) {
+                    ids[first + j] = saved.get(j).getEntityId();
+                }
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Obtains a bearer token from the token endpoint of a started context.
+     * @param client The client to send the login request with.
+     * @param base Base URL of the application, e.g. http://localhost:8080.
+     * @param username The user to log in as.
+     * @param password Its password.
+     * @return The value for the Authorization header, "Bearer ...".
+     */
+    static String login(HttpClient client, String base, String username, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/auth/token"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login of " + username + " failed with status " + response.statusCode());
+        }
+        return "Bearer " + new ObjectMapper().readTree(response.body()).get("access_token").asText();
+    }
+
+    static Entity entity(String name, Entity.EntityType entityType) {
+        Entity entity = new Entity();
+        entity.setName(name);
+        entity.setDescription("Benchmark row");
+        entity.setEntityType(entityType);
+        return entity;
+    }
+}
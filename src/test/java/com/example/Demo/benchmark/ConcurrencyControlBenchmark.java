@@ -0,0 +1,148 @@
+package com.example.Demo.benchmark;
+
+import com.example.Demo.Exception.PreconditionFailedException;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.repository.EntityRepository;
+import com.example.Demo.service.EntityService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares two ways of making read-modify-write updates of the same few rows safe under
+ * concurrency. Every writer reads a hot row, spends bench.think on the change, then writes it:
+ * <ul>
+ *     <li>optimistic: the version is read without a lock and the write is the If-Match UPDATE
+ *     (WHERE version = ?); a writer that lost the race re-reads and retries.</li>
+ *     <li>pessimistic: SELECT ... FOR UPDATE, then the same UPDATE in one transaction; the row
+ *     lock and a pool connection are held across the think time.</li>
+ * </ul>
+ * Both modes run against the same freshly seeded H2 database of the application.
+ * Expect FOR UPDATE to win when many writers pile onto a few rows with a short think time
+ * (optimistic writers then mostly retry), and the If-Match UPDATE to pull ahead once the think
+ * time is long enough that held locks and pool connections become the limit.
+ *
+ * Run from the IDE or with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.Demo.benchmark.ConcurrencyControlBenchmark
+ * Options (system properties): bench.writers (32), bench.rows (8), bench.think (2ms),
+ * bench.warmup (10s per mode), bench.duration (20s).
+ */
+public class ConcurrencyControlBenchmark {
+
+    private static final int WRITERS = Integer.getInteger("bench.writers", 32);
+    private static final int ROWS = Integer.getInteger("bench.rows", 8);
+    private static final Duration THINK = Duration.parse("PT" + System.getProperty("bench.think", "0.002s"));
+    private static final Duration WARMUP = Duration.parse("PT" + System.getProperty("bench.warmup", "10s"));
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("bench.duration", "20s"));
+
+    private static final String SELECT_VERSION = "select version from entities where entity_id = ?";
+
+    private static final EntityDTO CHANGE = new EntityDTO("Contended", "Written by the benchmark", Entity.EntityType.ITEM);
+
+    private interface Writer {
+        // Returns the number of attempts the committed write took
+        int write(long id);
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> results = new ArrayList<>();
+        // H2 gives up on a row lock after 1s by default; queued FOR UPDATE writers wait longer than that
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start("contention;LOCK_TIMEOUT=30000")) {
+            EntityService entityService = context.getBean(EntityService.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+            long[] ids = BenchmarkApplication.seed(context.getBean(EntityRepository.class), ROWS);
+
+            // Both modes read the version with the same statement; only the lock and the transaction differ
+            Writer optimistic = id -> {
+                for (int attempt = 1; ; attempt++) {
+                    Long version = jdbcTemplate.queryForObject(SELECT_VERSION, Long.class, id);
+                    think();
+                    try {
+                        entityService.updateEntity(id, CHANGE, version);
+                        return attempt;
+                    } catch (PreconditionFailedException ex) {
+                        // Lost the race: read the new version and try again
+                    }
+                }
+            };
+            Writer pessimistic = id -> transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForObject(SELECT_VERSION + " for update", Long.class, id);
+                think();
+                entityService.updateEntity(id, CHANGE, null);
+                return 1;
+            });
+
+            // Both modes share the JVM: warm both up before measuring either, or the second one wins
+            drive(optimistic, ids, WARMUP, null, new LongAdder(), new LongAdder());
+            drive(pessimistic, ids, WARMUP, null, new LongAdder(), new LongAdder());
+            results.add(run("optimistic", optimistic, ids));
+            results.add(run("pessimistic", pessimistic, ids));
+        }
+        System.out.println();
+        System.out.printf("%d writers on %d rows, %s think time, %s measured after %s warmup%n",
+                WRITERS, ROWS, THINK, DURATION, WARMUP);
+        results.forEach(System.out::println);
+    }
+
+    private static String run(String mode, Writer writer, long[] ids) throws InterruptedException {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder retries = new LongAdder();
+        LongAdder errors = new LongAdder();
+        drive(writer, ids, DURATION, latencies, retries, errors);
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return String.format("%-11s: %.0f writes/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, retries %d, errors %d",
+                mode, sorted.length / (double) DURATION.toSeconds(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0), retries.sum(), errors.sum());
+    }
+
+    // Closed model: every writer starts its next write as soon as the previous one committed
+    private static void drive(Writer writer, long[] ids, Duration duration, ConcurrentLinkedQueue<Long> latencies,
+                              LongAdder retries, LongAdder errors) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        int attempts = writer.write(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+                        retries.add(attempts - 1);
+                        if (latencies != null) {
+                            latencies.add(System.nanoTime() - start);
+                        }
+                    } catch (RuntimeException ex) {
+                        errors.increment();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void think() {
+        LockSupport.parkNanos(THINK.toNanos());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+}
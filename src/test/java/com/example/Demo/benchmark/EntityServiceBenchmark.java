@@ -0,0 +1,96 @@
+package com.example.Demo.benchmark;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.model.dto.EntityPatchDTO;
+import com.example.Demo.repository.EntityRepository;
+import com.example.Demo.service.EntityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CRUD methods of EntityService against the full Spring/Hibernate stack on H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityServiceBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private ConfigurableApplicationContext context;
+
+    private EntityService entityService;
+
+    private long[] ids;
+
+    private EntityDTO entityDTO;
+
+    private EntityPatchDTO patchDTO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("crud");
+        ids = BenchmarkApplication.seed(context.getBean(EntityRepository.class), ROWS);
+        entityService = context.getBean(EntityService.class);
+        entityDTO = new EntityDTO("Benchmark", "Created by the benchmark", Entity.EntityType.ITEM);
+        patchDTO = new EntityPatchDTO();
+        patchDTO.setDescription("Patched by the benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Entity addEntity() throws ValidationException {
+        return entityService.addEntity(entityDTO);
+    }
+
+    // Mostly near-cache hits once warmed up
+    @Benchmark
+    public Optional<Entity> getEntity() {
+        return entityService.getEntity(randomId());
+    }
+
+    @Benchmark
+    public void updateEntity() {
+        entityService.updateEntity(randomId(), entityDTO, null);
+    }
+
+    @Benchmark
+    public void patchEntity() throws ValidationException {
+        entityService.patchEntity(randomId(), patchDTO, null);
+    }
+
+    // Deletes a freshly created row so the seeded data stays intact
+    @Benchmark
+    public void addAndDeleteEntity() throws ValidationException {
+        Entity entity = entityService.addEntity(entityDTO);
+        entityService.deleteEntityById(entity.getEntityId());
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
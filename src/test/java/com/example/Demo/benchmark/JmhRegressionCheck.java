@@ -0,0 +1,73 @@
+package com.example.Demo.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result (-rf json) against a baseline result and exits with status 1 when
+ * any benchmark got slower than the tolerance. Throughput scores regress when they drop,
+ * time-based scores when they grow; benchmarks missing from the baseline are reported only.
+ *
+ * Usage: JmhRegressionCheck current.json, with -Djmh.baseline=baseline.json and optionally
+ * -Djmh.tolerance=percent (default 10). Without a baseline the check is skipped.
+ */
+public class JmhRegressionCheck {
+
+    public static void main(String[] args) throws IOException {
+        String baselineFile = System.getProperty("jmh.baseline", "");
+        if (baselineFile.isBlank()) {
+            System.out.println("No jmh.baseline given, skipping the regression check");
+            return;
+        }
+        double tolerance = Double.parseDouble(System.getProperty("jmh.tolerance", "10"));
+        Map<String, JsonNode> baseline = read(new File(baselineFile));
+        Map<String, JsonNode> current = read(new File(args[0]));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            double afterScore = after.path("primaryMetric").path("score").asDouble();
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("NEW        %-70s %12.3f %s%n", entry.getKey(), afterScore, unit);
+                continue;
+            }
+            double beforeScore = before.path("primaryMetric").path("score").asDouble();
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            double change = (afterScore - beforeScore) / beforeScore * 100;
+            double worse = higherIsBetter ? -change : change;
+            String status = worse > tolerance ? "REGRESSED" : "ok";
+            if (worse > tolerance) {
+                regressions++;
+            }
+            System.out.printf("%-10s %-70s %12.3f -> %12.3f %s (%+.1f%%)%n",
+                    status, entry.getKey(), beforeScore, afterScore, unit, change);
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, tolerance);
+            System.exit(1);
+        }
+    }
+
+    // Keyed by benchmark name plus its @Param values
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
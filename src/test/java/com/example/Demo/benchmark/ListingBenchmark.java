@@ -0,0 +1,96 @@
+package com.example.Demo.benchmark;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.CountMode;
+import com.example.Demo.model.common.EntityCriteria;
+import com.example.Demo.model.common.EntityFields;
+import com.example.Demo.model.common.PageResponse;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.repository.EntityRepository;
+import com.example.Demo.service.EntityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getAllEntity across filter combinations, count modes and sparse fieldsets, on a deep page so
+ * that the cost of OFFSET and COUNT shows up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingBenchmark {
+
+    private static final int ROWS = 50_000;
+
+    @Param({"none", "type", "name", "type+created", "type+name+updated"})
+    private String filter;
+
+    @Param({"EXACT", "NONE"})
+    private CountMode countMode;
+
+    @Param({"0", "100"})
+    private int pageNo;
+
+    // Empty for full entities
+    @Param({"", "entityId,name"})
+    private String fields;
+
+    private ConfigurableApplicationContext context;
+
+    private EntityService entityService;
+
+    private EntityCriteria criteria;
+
+    private EntityFields entityFields;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ValidationException {
+        context = BenchmarkApplication.start("listing");
+        BenchmarkApplication.seed(context.getBean(EntityRepository.class), ROWS);
+        entityService = context.getBean(EntityService.class);
+        entityFields = EntityFields.parse(fields);
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        criteria = new EntityCriteria();
+        if (filter.contains("type")) {
+            criteria.setEntityType(Entity.EntityType.PRODUCT);
+        }
+        if (filter.contains("name")) {
+            criteria.setName("ity 1");
+        }
+        if (filter.contains("created")) {
+            criteria.setCreatedFrom(yesterday);
+        }
+        if (filter.contains("updated")) {
+            criteria.setUpdatedFrom(yesterday);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PageResponse getAllEntity() {
+        return entityService.getAllEntity(criteria, pageNo, 20, "createdAt", "desc", countMode, entityFields);
+    }
+}
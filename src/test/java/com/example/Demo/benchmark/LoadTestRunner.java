@@ -0,0 +1,268 @@
+package com.example.Demo.benchmark;
+
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.repository.EntityRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end HTTP load test: boots the whole application (security filter chain, controller,
+ * Hibernate, Hikari) against an in-memory H2 database and drives it at a fixed arrival rate.
+ *
+ * Arrivals follow an open model: request i is due at start + i/rate (or at Poisson intervals)
+ * whether or not earlier requests have completed, and its latency is measured from that due
+ * time. A slow server therefore shows up as latency instead of silently lowering the offered
+ * load (coordinated omission).
+ *
+ * Run from the IDE or with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.Demo.benchmark.LoadTestRunner -Dload.rate=1000
+ * Options (system properties):
+ * load.rate (requests/s, 500), load.warmup (10s), load.duration (60s), load.rows (10000),
+ * load.mix (get=60,list=20,create=10,update=5,delete=5), load.arrivals (uniform|poisson),
+ * load.virtual (false, Java 21+), load.output (target/loadtest-result.json).
+ */
+public class LoadTestRunner {
+
+    enum Operation {
+        GET, LIST, CREATE, UPDATE, DELETE
+    }
+
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "500"));
+    private static final Duration WARMUP = Duration.parse("PT" + System.getProperty("load.warmup", "10s"));
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("load.duration", "60s"));
+    private static final int ROWS = Integer.getInteger("load.rows", 10_000);
+    private static final String MIX = System.getProperty("load.mix", "get=60,list=20,create=10,update=5,delete=5");
+    private static final boolean POISSON = "poisson".equalsIgnoreCase(System.getProperty("load.arrivals", "uniform"));
+    private static final boolean VIRTUAL = Boolean.getBoolean("load.virtual");
+    private static final String OUTPUT = System.getProperty("load.output", "target/loadtest-result.json");
+
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(2);
+
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong inFlight = new AtomicLong();
+    private final ConcurrentLinkedDeque<Long> createdIds = new ConcurrentLinkedDeque<>();
+    private final Operation[] weightedOperations;
+
+    private long[] ids;
+    private String base;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private String reader;
+    private String writer;
+
+    LoadTestRunner(String mix) {
+        weightedOperations = parseMix(mix);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(MAX_LATENCY, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        PoolWaitTracker poolWait = new PoolWaitTracker();
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start("load",
+                builder -> builder.initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(poolWait)),
+                "--spring.threads.virtual.enabled=" + VIRTUAL)) {
+            LoadTestRunner loadTest = new LoadTestRunner(MIX);
+            loadTest.ids = BenchmarkApplication.seed(context.getBean(EntityRepository.class), ROWS);
+            loadTest.base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            // GET needs ROLE_USER and writes need ROLE_ADMIN, and neither user has both
+            loadTest.reader = BenchmarkApplication.login(loadTest.client, loadTest.base, "user", "user123");
+            loadTest.writer = BenchmarkApplication.login(loadTest.client, loadTest.base, "admin", "admin123");
+
+            System.out.printf("Warming up for %s at %.0f req/s%n", WARMUP, RATE);
+            loadTest.run(WARMUP);
+            loadTest.reset();
+            poolWait.drain();
+            poolWait.timeouts();
+
+            System.out.printf("Measuring for %s at %.0f req/s, mix %s, %s arrivals, %s threads%n",
+                    DURATION, RATE, MIX, POISSON ? "poisson" : "uniform", VIRTUAL ? "virtual" : "platform");
+            loadTest.run(DURATION);
+            loadTest.report(poolWait);
+        }
+    }
+
+    private void run(Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        double due = start;
+        while (due < end) {
+            long wait = (long) due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send((long) due);
+            due += POISSON ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * intervalNanos : intervalNanos;
+        }
+        // Let the stragglers finish so they are counted
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void send(long dueNanos) {
+        Operation operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+        Long deleteId = null;
+        if (operation == Operation.DELETE) {
+            // Only delete rows this run created, so the seeded ids stay valid for GET and UPDATE
+            deleteId = createdIds.pollFirst();
+            if (deleteId == null) {
+                operation = Operation.CREATE;
+            }
+        }
+        Operation sent = operation;
+        String authorization = sent == Operation.GET || sent == Operation.LIST ? reader : writer;
+        inFlight.incrementAndGet();
+        client.sendAsync(request(sent, deleteId, authorization), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, failure) -> {
+                    long latency = System.nanoTime() - dueNanos;
+                    inFlight.decrementAndGet();
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.get(sent).increment();
+                        return;
+                    }
+                    latencies.get(sent).recordValue(Math.min(latency, MAX_LATENCY));
+                    if (sent == Operation.CREATE) {
+                        rememberCreated(response.body());
+                    }
+                });
+    }
+
+    private HttpRequest request(Operation operation, Long deleteId, String authorization) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Entity.EntityType entityType = Entity.EntityType.values()[random.nextInt(Entity.EntityType.values().length)];
+        String body = "{\"name\":\"Load " + random.nextInt(1_000_000) + "\",\"description\":\"Load test\",\"entityType\":\"" + entityType + "\"}";
+        HttpRequest.Builder builder = switch (operation) {
+            case GET -> HttpRequest.newBuilder(URI.create(base + "/entities/" + randomId())).GET();
+            case LIST -> HttpRequest.newBuilder(URI.create(base + "/entities/?pageSize=20&pageNo=" + random.nextInt(20)
+                    + "&entityType=" + entityType)).GET();
+            case CREATE -> HttpRequest.newBuilder(URI.create(base + "/entities/"))
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            case UPDATE -> HttpRequest.newBuilder(URI.create(base + "/entities/" + randomId()))
+                    .PUT(HttpRequest.BodyPublishers.ofString(body));
+            case DELETE -> HttpRequest.newBuilder(URI.create(base + "/entities/" + deleteId)).DELETE();
+        };
+        return builder.header("Content-Type", "application/json")
+                .header("Authorization", authorization)
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private void rememberCreated(String body) {
+        try {
+            createdIds.add(new ObjectMapper().readTree(body).path("entityId").asLong());
+        } catch (Exception ex) {
+            // A response we cannot parse only means one fewer delete target
+        }
+    }
+
+    private void reset() {
+        latencies.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    private void report(PoolWaitTracker poolWait) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("rate", RATE);
+        result.put("durationSeconds", DURATION.toSeconds());
+        result.put("mix", MIX);
+        result.put("arrivals", POISSON ? "poisson" : "uniform");
+        result.put("threads", VIRTUAL ? "virtual" : "platform");
+        ObjectNode endpoints = result.putObject("endpoints");
+
+        System.out.println();
+        System.out.printf("%-8s %9s %7s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation).getIntervalHistogram();
+            long errorCount = errors.get(operation).sum();
+            total += histogram.getTotalCount();
+            if (histogram.getTotalCount() == 0 && errorCount == 0) {
+                continue;
+            }
+            print(operation.name(), histogram, errorCount);
+            endpoints.set(operation.name(), toJson(objectMapper, histogram, errorCount));
+        }
+
+        Histogram acquire = poolWait.drain();
+        long timeouts = poolWait.timeouts();
+        print("pool", acquire, timeouts);
+        result.set("poolWait", toJson(objectMapper, acquire, timeouts));
+        result.put("achievedRate", total / (double) DURATION.toSeconds());
+        System.out.printf("achieved %.0f req/s of %.0f offered%n", total / (double) DURATION.toSeconds(), RATE);
+
+        File output = new File(OUTPUT);
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output, result);
+        System.out.println("Result written to " + output.getPath());
+    }
+
+    private static void print(String name, Histogram histogram, long errors) {
+        System.out.printf("%-8s %9d %7d %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), errors,
+                millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1e6);
+    }
+
+    private static JsonNode toJson(ObjectMapper objectMapper, Histogram histogram, long errors) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("count", histogram.getTotalCount());
+        node.put("errors", errors);
+        node.put("p50Ms", millis(histogram, 50));
+        node.put("p99Ms", millis(histogram, 99));
+        node.put("p999Ms", millis(histogram, 99.9));
+        node.put("maxMs", histogram.getMaxValue() / 1e6);
+        return node;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    // e.g. "get=60,list=20" becomes a table with 60 GET and 20 LIST slots
+    static Operation[] parseMix(String mix) {
+        List<Operation> slots = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split("=");
+            Operation operation = Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT));
+            for (int i = 0; i < Integer.parseInt(weight[1].trim()); i++) {
+                slots.add(operation);
+            }
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("Empty load mix: " + mix);
+        }
+        return slots.toArray(new Operation[0]);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.Demo.benchmark;
+
+import com.example.Demo.model.common.CountMode;
+import com.example.Demo.model.common.EntityCriteria;
+import com.example.Demo.model.common.PageResponse;
+import com.example.Demo.service.EntityService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The name filter on a real Postgres, served by the trigram index of schema-postgresql.sql
+ * (plan=trigram) and by a sequential scan of the same upper(name) LIKE query without it
+ * (plan=like). Each trial boots an embedded Postgres and seeds it in SQL; 10M rows take a few
+ * minutes to load and index. Excluded from the default benchmark run, see the bench profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameSearchBenchmark {
+
+    // "Entity 4242", "Entity 42420".."Entity 42429", ...: about 111 matches per million rows
+    private static final String TERM = "ity 4242";
+
+    @Param({"1000000", "10000000"})
+    private int rows;
+
+    @Param({"trigram", "like"})
+    private String plan;
+
+    @Param({"EXACT", "NONE"})
+    private CountMode countMode;
+
+    private EmbeddedPostgres postgres;
+
+    private ConfigurableApplicationContext context;
+
+    private EntityService entityService;
+
+    private EntityCriteria criteria;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder()
+                .setServerConfig("maintenance_work_mem", "512MB")
+                .start();
+        context = BenchmarkApplication.startPostgres(postgres.getPostgresDatabase());
+        DataSource dataSource = context.getBean(DataSource.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Loading is much faster without the index; it is built afterwards, as on a table with history
+        jdbcTemplate.execute("drop index if exists idx_entities_name_trgm");
+        jdbcTemplate.update("insert into entities (entity_id, name, description, entity_type, created_at, updated_at, version, modified_at) "
+                + "select i, 'Entity ' || i, 'Benchmark row', (array['USER', 'PRODUCT', 'ITEM'])[i % 3 + 1], "
+                + "current_date, current_date, 0, now() from generate_series(0, ? - 1) as i", rows);
+        if ("trigram".equals(plan)) {
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema-postgresql.sql"));
+            populator.setSeparator("@@");
+            populator.execute(dataSource);
+        }
+        jdbcTemplate.execute("analyze entities");
+
+        entityService = context.getBean(EntityService.class);
+        criteria = new EntityCriteria();
+        criteria.setName(TERM);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public PageResponse getAllEntityByName() {
+        return entityService.getAllEntity(criteria, 0, 20, "createdAt", "desc", countMode, null);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.Demo.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long requests wait for a Hikari connection. Registered as a bean post-processor
+ * so the tracker is in place before the pool starts.
+ */
+final class PoolWaitTracker implements BeanPostProcessor, MetricsTrackerFactory {
+
+    private final Recorder acquire = new Recorder(TimeUnit.SECONDS.toNanos(60), 3);
+
+    private final LongAdder timeouts = new LongAdder();
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource && dataSource.getMetricsTrackerFactory() == null) {
+            dataSource.setMetricsTrackerFactory(this);
+        }
+        return bean;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquire.recordValue(Math.min(elapsedAcquiredNanos, TimeUnit.SECONDS.toNanos(60)));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * @return Connection acquisition times (ns) since the previous call.
+     */
+    Histogram drain() {
+        return acquire.getIntervalHistogram();
+    }
+
+    long timeouts() {
+        return timeouts.sumThenReset();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.Demo.benchmark;
+
+import com.example.Demo.model.common.PageResponse;
+import com.example.Demo.model.dao.Entity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response bodies, with the same ObjectMapper configuration
+ * Spring MVC uses (JavaTimeModule, ISO dates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private ObjectWriter entityWriter;
+
+    private ObjectWriter pageWriter;
+
+    private Entity entity;
+
+    private PageResponse page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        entityWriter = objectMapper.writerFor(Entity.class);
+        pageWriter = objectMapper.writerFor(PageResponse.class);
+
+        List<Entity> data = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Entity row = BenchmarkApplication.entity("Entity " + i, Entity.EntityType.values()[i % 3]);
+            row.setEntityId((long) i + 1);
+            row.setCreatedAt(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+            row.setUpdatedAt(row.getCreatedAt());
+            data.add(row);
+        }
+        entity = data.get(0);
+        page = new PageResponse(data, 0, pageSize, 10);
+        page.setHasNext(true);
+    }
+
+    @Benchmark
+    public byte[] serializeEntity() throws Exception {
+        return entityWriter.writeValueAsBytes(entity);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+}
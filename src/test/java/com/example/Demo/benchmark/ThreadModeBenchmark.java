@@ -0,0 +1,129 @@
+package com.example.Demo.benchmark;
+
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.repository.EntityRepository;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares request throughput and tail latency of the platform-thread and the virtual-thread
+ * request execution modes. Boots the application once per mode against an in-memory H2
+ * database and drives it with a fixed number of concurrent clients (closed model), half
+ * GET /entities/{id} and half filtered listings that go to the database.
+ *
+ * Run from the IDE or with:
+ * mvn -Pjava21 test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.Demo.benchmark.ThreadModeBenchmark
+ * Options (system properties): bench.clients (5000), bench.warmup (10s), bench.duration (30s), bench.rows (10000).
+ * On Java 17 only the platform mode is measured; Spring Boot ignores virtual threads below Java 21.
+ */
+public class ThreadModeBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 5000);
+    private static final Duration WARMUP = Duration.parse("PT" + System.getProperty("bench.warmup", "10s"));
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("bench.duration", "30s"));
+    private static final int ROWS = Integer.getInteger("bench.rows", 10_000);
+
+    private static long[] ids;
+    private static String authorization;
+
+    public static void main(String[] args) throws Exception {
+        List<String> results = new ArrayList<>();
+        results.add(run(false));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run(true));
+        } else {
+            results.add("virtual : skipped, requires Java 21 (running " + Runtime.version() + ")");
+        }
+        System.out.println();
+        System.out.printf("%d clients, %s measured after %s warmup%n", CLIENTS, DURATION, WARMUP);
+        results.forEach(System.out::println);
+    }
+
+    private static String run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start("threads",
+                "--spring.threads.virtual.enabled=" + virtualThreads)) {
+            ids = BenchmarkApplication.seed(context.getBean(EntityRepository.class), ROWS);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port;
+
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            authorization = BenchmarkApplication.login(client, base, "user", "user123");
+
+            drive(client, base, WARMUP, null);
+            ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+            AtomicLong errors = drive(client, base, DURATION, latencies);
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double throughput = sorted.length / (double) DURATION.toSeconds();
+            return String.format("%-8s: %.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, errors %d",
+                    virtualThreads ? "virtual" : "platform", throughput,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0), errors.get());
+        }
+    }
+
+    // Every client sends its next request as soon as the previous response arrives
+    private static AtomicLong drive(HttpClient client, String base, Duration duration,
+                                    ConcurrentLinkedQueue<Long> latencies) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            next(client, base, deadline, latencies, errors, done);
+        }
+        done.await();
+        return errors;
+    }
+
+    private static void next(HttpClient client, String base, long deadline, ConcurrentLinkedQueue<Long> latencies,
+                             AtomicLong errors, CountDownLatch done) {
+        long start = System.nanoTime();
+        if (start >= deadline) {
+            done.countDown();
+            return;
+        }
+        client.sendAsync(randomRequest(base), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    } else if (latencies != null) {
+                        latencies.add(System.nanoTime() - start);
+                    }
+                    next(client, base, deadline, latencies, errors, done);
+                });
+    }
+
+    private static HttpRequest randomRequest(String base) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = random.nextBoolean()
+                ? "/entities/" + ids[random.nextInt(ids.length)]
+                : "/entities/?count=none&pageSize=20&pageNo=" + random.nextInt(50)
+                        + "&entityType=" + Entity.EntityType.values()[random.nextInt(3)];
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .header("Authorization", authorization)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+}
@@ -1,9 +1,29 @@
 package com.example.Demo.controller;
 
+import com.example.Demo.Exception.EntityNotFoundException;
+import com.example.Demo.Exception.PreconditionFailedException;
+import com.example.Demo.Exception.TooManyRequestsException;
+import com.example.Demo.model.common.BulkResponse;
+import com.example.Demo.model.common.CacheStatsResponse;
+import com.example.Demo.model.common.CountMode;
+import com.example.Demo.model.common.EntityChangeEvent;
+import com.example.Demo.model.common.EntityCriteria;
+import com.example.Demo.model.common.EntityDeltaResponse;
+import com.example.Demo.model.common.EntityFields;
+import com.example.Demo.model.common.EntityVersion;
+import com.example.Demo.model.common.ExportFormat;
 import com.example.Demo.model.common.PageResponse;
+import com.example.Demo.model.common.WriteBehindStatus;
 import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dto.BulkOperationDTO;
 import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.model.dto.EntityPatchDTO;
+import com.example.Demo.service.EntityBulkService;
+import com.example.Demo.service.EntityChangeService;
+import com.example.Demo.service.EntityDeltaService;
+import com.example.Demo.service.EntityExportService;
 import com.example.Demo.service.EntityService;
+import com.example.Demo.service.EntityWriteBehindService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,13 +32,22 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(EntityController.class)
@@ -30,6 +59,21 @@ class EntityControllerTest {
     @MockBean
     private EntityService entityService;
 
+    @MockBean
+    private EntityBulkService entityBulkService;
+
+    @MockBean
+    private EntityExportService entityExportService;
+
+    @MockBean
+    private EntityWriteBehindService entityWriteBehindService;
+
+    @MockBean
+    private EntityChangeService entityChangeService;
+
+    @MockBean
+    private EntityDeltaService entityDeltaService;
+
     private EntityDTO entityDTO;
     private Entity entity;
 
@@ -63,6 +107,64 @@ class EntityControllerTest {
         verify(entityService, times(1)).addEntity(any(EntityDTO.class));
     }
 
+    @Test
+    @WithMockUser(username = "admin", password = "admin123" ,roles = {"ADMIN"})
+    void addEntity_RespondAsync() throws Exception {
+        when(entityWriteBehindService.isEnabled()).thenReturn(true);
+        when(entityWriteBehindService.submit(any(EntityDTO.class)))
+                .thenReturn(new WriteBehindStatus(51L, WriteBehindStatus.State.PENDING, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/entities/")
+                        .with(csrf())
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Admin User\", \"description\":\"User\", \"entityType\":\"USER\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/entities/_pending/51"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.id").value(51))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+
+        verify(entityService, never()).addEntity(any(EntityDTO.class));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin123" ,roles = {"ADMIN"})
+    void addEntity_RespondAsyncQueueFull() throws Exception {
+        when(entityWriteBehindService.isEnabled()).thenReturn(true);
+        when(entityWriteBehindService.submit(any(EntityDTO.class)))
+                .thenThrow(new TooManyRequestsException("Write-behind queue is full, retry later"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/entities/")
+                        .with(csrf())
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Admin User\", \"description\":\"User\", \"entityType\":\"USER\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user123", roles = {"USER"})
+    void getPendingStatus_Created() throws Exception {
+        when(entityWriteBehindService.getStatus(51L))
+                .thenReturn(Optional.of(new WriteBehindStatus(51L, WriteBehindStatus.State.CREATED, null)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/_pending/51"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Location", "/entities/51"))
+                .andExpect(jsonPath("$.state").value("CREATED"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user123", roles = {"USER"})
+    void getPendingStatus_Unknown() throws Exception {
+        when(entityWriteBehindService.getStatus(51L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/_pending/51"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(username = "admin", password = "admin123",roles = {"ADMIN"})
     void getEntityById() throws Exception {
@@ -76,6 +178,59 @@ class EntityControllerTest {
         verify(entityService, times(1)).getEntity(1L);
     }
 
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getEntityById_ReturnsValidators() throws Exception {
+        entity.setVersion(3L);
+        entity.setModifiedAt(Instant.parse("2024-05-01T10:15:30Z"));
+        when(entityService.getEntity(1L)).thenReturn(Optional.of(entity));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().string("Last-Modified", "Wed, 01 May 2024 10:15:30 GMT"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getEntityById_WithFields() throws Exception {
+        when(entityService.getEntityFields(1L, EntityFields.parse("name"))).thenReturn(Optional.of(Map.of("entityId", 1L, "name", "Admin User")));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/{id}", 1L).param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entityId").value(1))
+                .andExpect(jsonPath("$.name").value("Admin User"))
+                .andExpect(jsonPath("$.description").doesNotExist());
+
+        verify(entityService, never()).getEntity(anyLong());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getEntityById_NotModified() throws Exception {
+        when(entityService.getEntityVersion(1L)).thenReturn(Optional.of(new EntityVersion(3L, Instant.parse("2024-05-01T10:15:30Z"))));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/{id}", 1L).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(entityService, never()).getEntity(anyLong());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getEntityById_Modified() throws Exception {
+        entity.setVersion(4L);
+        when(entityService.getEntityVersion(1L)).thenReturn(Optional.of(new EntityVersion(4L, null)));
+        when(entityService.getEntity(1L)).thenReturn(Optional.of(entity));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/{id}", 1L).header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     void getEntityById_NotFound() throws Exception {
@@ -96,7 +251,8 @@ class EntityControllerTest {
         PageResponse pageResponse = new PageResponse();
         pageResponse.setData(List.of(entity));
 
-        when(entityService.getAllEntity(0, 10, null, "createdAt", "USER")).thenReturn(pageResponse);
+        EntityCriteria criteria = new EntityCriteria(Entity.EntityType.USER, null);
+        when(entityService.getAllEntity(criteria, 0, 10, "createdAt", "asc", CountMode.EXACT, null)).thenReturn(pageResponse);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/entities/")
                         .param("pageNo", "0")
@@ -107,13 +263,188 @@ class EntityControllerTest {
                 .andExpect(jsonPath("$.data[0].name").value("Admin User"))
                 .andExpect(jsonPath("$.data[0].description").value("User"));
 
-        verify(entityService, times(1)).getAllEntity(0, 10, null, "createdAt", "USER");
+        verify(entityService, times(1)).getAllEntity(criteria, 0, 10, "createdAt", "asc", CountMode.EXACT, null);
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getAllEntities_WithCombinedFilters() throws Exception {
+        PageResponse pageResponse = new PageResponse();
+        pageResponse.setData(List.of(entity));
+
+        EntityCriteria criteria = new EntityCriteria(Entity.EntityType.PRODUCT, "box");
+        criteria.setCreatedFrom(LocalDate.of(2024, 1, 1));
+        criteria.setUpdatedTo(LocalDate.of(2024, 6, 30));
+        when(entityService.getAllEntity(criteria, 0, 10, "updatedAt", "desc", CountMode.EXACT, null)).thenReturn(pageResponse);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/")
+                        .param("entityType", "PRODUCT")
+                        .param("name", "box")
+                        .param("createdFrom", "2024-01-01")
+                        .param("updatedTo", "2024-06-30")
+                        .param("sortBy", "updatedAt")
+                        .param("direction", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("Admin User"));
+
+        verify(entityService, times(1)).getAllEntity(criteria, 0, 10, "updatedAt", "desc", CountMode.EXACT, null);
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getAllEntities_InvalidEntityType() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/")
+                        .param("entityType", "UNKNOWN"))
+                .andExpect(status().isBadRequest());
+
+        verify(entityService, never()).getAllEntity(any(), anyInt(), anyInt(), any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getAllEntities_WithoutCount() throws Exception {
+        PageResponse pageResponse = new PageResponse();
+        pageResponse.setData(List.of(entity));
+        pageResponse.setTotalPages(null);
+        pageResponse.setHasNext(true);
+
+        when(entityService.getAllEntity(new EntityCriteria(), 0, 10, "createdAt", "asc", CountMode.NONE, null)).thenReturn(pageResponse);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/")
+                        .param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getAllEntities_WithFields() throws Exception {
+        PageResponse pageResponse = new PageResponse();
+        pageResponse.setData(List.of(Map.of("entityId", 1L, "name", "Admin User")));
+
+        when(entityService.getAllEntity(new EntityCriteria(), 0, 10, "createdAt", "asc", CountMode.NONE, EntityFields.parse("name")))
+                .thenReturn(pageResponse);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/")
+                        .param("count", "none")
+                        .param("fields", "entityId, name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("Admin User"))
+                .andExpect(jsonPath("$.data[0].description").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getAllEntities_InvalidField() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/")
+                        .param("fields", "name,password"))
+                .andExpect(status().isBadRequest());
+
+        verify(entityService, never()).getAllEntity(any(), anyInt(), anyInt(), any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getAllEntities_WithCursor() throws Exception {
+        PageResponse pageResponse = new PageResponse();
+        pageResponse.setData(List.of(entity));
+        pageResponse.setNextCursor("next");
+
+        when(entityService.getAllEntityAfter("abc", new EntityCriteria(), 10, "createdAt", "asc", null)).thenReturn(pageResponse);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/")
+                        .param("after", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("Admin User"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(entityService, times(1)).getAllEntityAfter("abc", new EntityCriteria(), 10, "createdAt", "asc", null);
+        verify(entityService, never()).getAllEntity(any(), anyInt(), anyInt(), any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getCacheStats() throws Exception {
+        when(entityService.getCacheStats()).thenReturn(new CacheStatsResponse(10, 8, 2, 0.8, 1));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/_cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitCount").value(8))
+                .andExpect(jsonPath("$.hitRate").value(0.8));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void exportEntities() throws Exception {
+        when(entityExportService.export(eq(ExportFormat.NDJSON), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("{\"entityId\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/entities/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"entityId\":1}\n"));
+
+        verify(entityExportService, times(1)).export(eq(ExportFormat.NDJSON), any(OutputStream.class));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void streamChanges() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(entityChangeService.subscribe("abc-4")).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/entities/changes")
+                        .header("Last-Event-ID", "abc-4")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().id("abc-5").name("deleted").data(new EntityChangeEvent(EntityChangeEvent.Change.DELETED, 1L, Instant.EPOCH)));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("id:abc-5\nevent:deleted\ndata:{\"change\":\"DELETED\",\"entityId\":1")));
+
+        verify(entityChangeService, times(1)).subscribe("abc-4");
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getDelta() throws Exception {
+        when(entityDeltaService.getDelta("abc", 100)).thenReturn(new EntityDeltaResponse(List.of(entity), List.of(7L), "def", false));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/delta").param("since", "abc").param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[0].entityId").value(1))
+                .andExpect(jsonPath("$.deleted[0]").value(7))
+                .andExpect(jsonPath("$.nextToken").value("def"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        verify(entityDeltaService, times(1)).getDelta("abc", 100);
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void exportEntities_InvalidFormat() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/entities/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid export format: xml"));
+
+        verifyNoInteractions(entityExportService);
     }
 
     @Test
     @WithMockUser(username = "admin",password = "admin123",roles = {"ADMIN"})
     void updateEntity() throws Exception {
-        doNothing().when(entityService).updateEntity(eq(1L), any(EntityDTO.class));
+        doNothing().when(entityService).updateEntity(eq(1L), any(EntityDTO.class), isNull());
 
         mockMvc.perform(MockMvcRequestBuilders.put("/entities/{id}", 1L)
                         .with(csrf())
@@ -122,7 +453,89 @@ class EntityControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Entity updated successfully"));
 
-        verify(entityService, times(1)).updateEntity(eq(1L), any(EntityDTO.class));
+        verify(entityService, times(1)).updateEntity(eq(1L), any(EntityDTO.class), isNull());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin123", roles = {"ADMIN"})
+    void patchEntity() throws Exception {
+        doNothing().when(entityService).patchEntity(eq(1L), any(EntityPatchDTO.class), isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/entities/{id}", 1L)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Admin Patched\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Entity updated successfully"));
+
+        verify(entityService, times(1)).patchEntity(eq(1L), argThat(patch ->
+                "Admin Patched".equals(patch.getName()) && patch.getDescription() == null), isNull());
+    }
+
+    @Test
+    @WithMockUser(username = "admin",password = "admin123",roles = {"ADMIN"})
+    void updateEntity_IfMatch() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put("/entities/{id}", 1L)
+                        .with(csrf())
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Admin Updated\", \"description\":\"Updated User\", \"entityType\":\"USER\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+
+        verify(entityService, times(1)).updateEntity(eq(1L), any(EntityDTO.class), eq(3L));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin123", roles = {"ADMIN"})
+    void patchEntity_VersionConflict() throws Exception {
+        doThrow(new PreconditionFailedException("Entity with id 1 was modified after version 3"))
+                .when(entityService).patchEntity(eq(1L), any(EntityPatchDTO.class), eq(3L));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/entities/{id}", 1L)
+                        .with(csrf())
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Patched\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin123", roles = {"ADMIN"})
+    void patchEntity_InvalidIfMatch() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.patch("/entities/{id}", 1L)
+                        .with(csrf())
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Patched\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(entityService);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin123", roles = {"ADMIN"})
+    void patchEntity_BlankName() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.patch("/entities/{id}", 1L)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"   \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Name cannot be blank"));
+
+        verifyNoInteractions(entityService);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin123", roles = {"ADMIN"})
+    void patchEntity_NotFound() throws Exception {
+        doThrow(new EntityNotFoundException("Entity not found with id: 1")).when(entityService).patchEntity(eq(1L), any(EntityPatchDTO.class), isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/entities/{id}", 1L)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Patched\"}"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -136,4 +549,19 @@ class EntityControllerTest {
 
         verify(entityService, times(1)).deleteEntityById(1L);
     }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin123", roles = {"ADMIN"})
+    void deleteEntities() throws Exception {
+        when(entityService.deleteEntities("USER", LocalDate.of(2024, 1, 1))).thenReturn(42L);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/entities")
+                        .with(csrf())
+                        .param("entityType", "USER")
+                        .param("updatedBefore", "2024-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(42));
+
+        verify(entityService, times(1)).deleteEntities("USER", LocalDate.of(2024, 1, 1));
+    }
 }
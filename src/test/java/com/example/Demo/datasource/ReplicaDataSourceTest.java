@@ -0,0 +1,166 @@
+package com.example.Demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Two embedded H2 databases stand in for the primary and a replica; each row says where it lives
+class ReplicaDataSourceTest {
+
+    private JdbcDataSource primary;
+
+    private JdbcDataSource replica;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaDataSource(primary, List.of(replica), ReplicaDataSource.Balancing.ROUND_ROBIN, Duration.ofSeconds(10)));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void testReadOnlyTransaction_UsesReplica() {
+        assertEquals("replica", readOnly.execute(status -> location()));
+    }
+
+    @Test
+    void testReadWriteTransaction_UsesPrimary() {
+        assertEquals("primary", readWrite.execute(status -> location()));
+    }
+
+    @Test
+    void testReadYourWrites_UsesPrimary() {
+        try (ReadYourWrites.Scope scope = ReadYourWrites.begin()) {
+            assertEquals("primary", readOnly.execute(status -> location()));
+        }
+        assertEquals("replica", readOnly.execute(status -> location()));
+    }
+
+    @Test
+    void testReplicaUnavailable_FallsBackToPrimary() throws SQLException {
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+        ReplicaDataSource dataSource = new ReplicaDataSource(primary, List.of(down), ReplicaDataSource.Balancing.ROUND_ROBIN, Duration.ofSeconds(10));
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals("primary", new JdbcTemplate(new SingleConnectionDataSource(connection, true)).queryForObject("select location from origin", String.class));
+        }
+    }
+
+    @Test
+    void testReplicaUnavailable_SkippedForRetryDelay() throws SQLException {
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+        ReplicaDataSource dataSource = new ReplicaDataSource(primary, List.of(down, replica), ReplicaDataSource.Balancing.ROUND_ROBIN, Duration.ofSeconds(10));
+
+        for (int i = 0; i < 4; i++) {
+            dataSource.getConnection().close();
+        }
+
+        // Only the first read waited for the failed replica; the others went to the healthy one
+        verify(down, times(1)).getConnection();
+        assertSame(replica, dataSource.pick());
+        assertSame(replica, dataSource.pick());
+    }
+
+    @Test
+    void testRoundRobin() {
+        DataSource first = mock(DataSource.class);
+        DataSource second = mock(DataSource.class);
+        ReplicaDataSource dataSource = new ReplicaDataSource(primary, List.of(first, second), ReplicaDataSource.Balancing.ROUND_ROBIN, Duration.ofSeconds(10));
+
+        assertEquals(List.of(first, second, first), List.of(dataSource.pick(), dataSource.pick(), dataSource.pick()));
+    }
+
+    @Test
+    void testLeastBusy() {
+        HikariDataSource busy = pool(8, 2);
+        HikariDataSource idle = pool(1, 0);
+        ReplicaDataSource dataSource = new ReplicaDataSource(primary, List.of(busy, idle), ReplicaDataSource.Balancing.LEAST_BUSY, Duration.ofSeconds(10));
+
+        assertSame(idle, dataSource.pick());
+        assertSame(idle, dataSource.pick());
+    }
+
+    @Test
+    void testFilter_ReadsAfterWriteUsePrimary() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+        assertFalse(routedToPrimary(filter, "GET", "alice"));
+        assertTrue(routedToPrimary(filter, "PUT", "alice"));
+        assertTrue(routedToPrimary(filter, "GET", "alice"));
+        assertFalse(routedToPrimary(filter, "GET", "bob"));
+        assertFalse(ReadYourWrites.isActive());
+    }
+
+    private String location() {
+        return jdbcTemplate.queryForObject("select location from origin", String.class);
+    }
+
+    private static boolean routedToPrimary(ReadYourWritesFilter filter, String method, String user) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/entities/1");
+        request.setRemoteUser(user);
+        AtomicBoolean primary = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                primary.set(ReadYourWrites.isActive());
+            }
+        });
+        return primary.get();
+    }
+
+    private static HikariDataSource pool(int active, int waiting) {
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(pool.getActiveConnections()).thenReturn(active);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(waiting);
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        return dataSource;
+    }
+
+    private static JdbcDataSource database(String location) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + location + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table origin (location varchar(20))");
+        jdbcTemplate.update("insert into origin values (?)", location);
+        return dataSource;
+    }
+}
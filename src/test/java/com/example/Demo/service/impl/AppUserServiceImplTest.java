@@ -0,0 +1,141 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.Exception.EntityNotFoundException;
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.dao.AppUser;
+import com.example.Demo.repository.AppUserRepository;
+import com.example.Demo.security.CachingAuthenticationProvider;
+import com.example.Demo.service.CustomUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppUserServiceImplTest {
+
+    @Mock
+    private AppUserRepository appUserRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private final AuthenticationProvider delegate = mock(AuthenticationProvider.class);
+
+    // Credentials version of "user" as stored on the primary
+    private final AtomicLong credentialsVersion = new AtomicLong();
+
+    @Spy
+    private CachingAuthenticationProvider authenticationProvider = new CachingAuthenticationProvider(
+            delegate, username -> Optional.of(credentialsVersion.get()), 100, Duration.ofMinutes(1));
+
+    @InjectMocks
+    private AppUserServiceImpl appUserService;
+
+    private AppUser user;
+
+    @BeforeEach
+    void setUp() {
+        user = new AppUser();
+        user.setUsername("user");
+        user.setPassword("{bcrypt}old");
+        user.setRoles("USER");
+    }
+
+    @Test
+    void testAuthenticate_RepeatedCredentialsSkipDelegate() {
+        when(delegate.authenticate(any())).thenReturn(UsernamePasswordAuthenticationToken.authenticated(
+                "user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user123"));
+        var cached = authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user123"));
+
+        assertTrue(cached.isAuthenticated());
+        assertEquals("user", cached.getName());
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_USER"), List.copyOf(cached.getAuthorities()));
+        verify(delegate, times(1)).authenticate(any());
+
+        // Other credentials for the same user are verified by the delegate
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "wrong"));
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void testAuthenticate_ChangeOnAnotherNodeVerifiesAgain() {
+        when(delegate.authenticate(any())).thenReturn(UsernamePasswordAuthenticationToken.authenticated(
+                "user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user123"));
+
+        // Saved elsewhere: no local invalidation, only the stored version moves on
+        credentialsVersion.incrementAndGet();
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user123"));
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user123"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void testChangePassword_EncodesAndInvalidatesCaches() {
+        when(delegate.authenticate(any())).thenReturn(UsernamePasswordAuthenticationToken.authenticated(
+                "user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        when(appUserRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(appUserRepository.save(user)).thenReturn(user);
+        when(passwordEncoder.encode("new-password")).thenReturn("{bcrypt}new");
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user123"));
+
+        AppUser updated = appUserService.changePassword("user", "new-password");
+
+        assertEquals("{bcrypt}new", updated.getPassword());
+        verify(userDetailsService).evict("user");
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user123"));
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void testChangePassword_UserNotFound() {
+        when(appUserRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> appUserService.changePassword("ghost", "new-password"));
+        verify(appUserRepository, never()).save(any());
+    }
+
+    @Test
+    void testChangeRoles_Success() throws ValidationException {
+        when(appUserRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(appUserRepository.save(user)).thenReturn(user);
+
+        AppUser updated = appUserService.changeRoles("user", List.of("ADMIN", "USER"));
+
+        assertEquals(List.of("ADMIN", "USER"), updated.roleList());
+        verify(userDetailsService).evict("user");
+        verify(authenticationProvider).invalidate("user");
+    }
+
+    @Test
+    void testChangeRoles_InvalidRole() {
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> appUserService.changeRoles("user", List.of("ROOT")));
+
+        assertTrue(ex.getMessage().contains("Invalid role: ROOT"));
+        verifyNoInteractions(appUserRepository);
+    }
+}
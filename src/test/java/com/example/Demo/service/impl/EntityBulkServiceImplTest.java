@@ -0,0 +1,206 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.BulkResponse;
+import com.example.Demo.model.common.EntityChangeEvent;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dao.EntityTombstone;
+import com.example.Demo.model.dto.BulkOperationDTO;
+import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.repository.EntityRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EntityBulkServiceImplTest {
+
+    @Mock
+    private EntityRepository entityRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private EntityCache entityCache = new EntityCache(100, Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(5));
+
+    @Spy
+    private EntityTypeCounters entityTypeCounters = new EntityTypeCounters();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private EntityBulkServiceImpl bulkService;
+
+    private Entity existing;
+
+    @BeforeEach
+    void setUp() {
+        existing = new Entity();
+        existing.setEntityId(5L);
+        existing.setName("Old");
+        existing.setDescription("Old");
+        existing.setEntityType(Entity.EntityType.ITEM);
+        existing.setVersion(0L);
+
+        // Run the transaction callback inline
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testExecute_MixedOperations() throws ValidationException {
+        when(entityRepository.findAllById(anyIterable())).thenReturn(List.of(existing));
+        doAnswer(invocation -> {
+            invocation.<Entity>getArgument(0).setEntityId(100L);
+            return null;
+        }).when(entityManager).persist(any(Entity.class));
+        // Hibernate increments the version of the entity it finds dirty
+        doAnswer(invocation -> {
+            existing.setVersion(1L);
+            return null;
+        }).when(entityManager).flush();
+
+        BulkResponse response = bulkService.execute(List.of(
+                new BulkOperationDTO(BulkOperationDTO.Operation.CREATE, null, new EntityDTO("New", "Created", Entity.EntityType.USER)),
+                new BulkOperationDTO(BulkOperationDTO.Operation.UPDATE, 5L, new EntityDTO("Updated", "Updated", Entity.EntityType.PRODUCT)),
+                new BulkOperationDTO(BulkOperationDTO.Operation.DELETE, 6L, null),
+                new BulkOperationDTO(BulkOperationDTO.Operation.CREATE, null, new EntityDTO("X", "Invalid", Entity.EntityType.USER))));
+
+        assertTrue(response.isErrors());
+        assertEquals(List.of(201, 200, 404, 400), response.getItems().stream().map(BulkResponse.Item::getStatus).toList());
+        assertEquals(100L, response.getItems().get(0).getId());
+        assertEquals("Updated", existing.getName());
+        assertEquals(Entity.EntityType.PRODUCT, existing.getEntityType());
+        verify(entityRepository, times(1)).findAllById(anyIterable());
+        verify(entityManager, times(1)).persist(any(Entity.class));
+        verify(entityManager, times(1)).flush();
+        // The batched UPDATE does not move the entity in the change sequence, this does
+        verify(entityRepository, times(1)).markChanged(List.of(5L));
+        verify(entityManager, never()).persist(any(EntityTombstone.class));
+        verify(entityCache, times(1)).invalidateAll(List.of(100L, 5L, 6L));
+        // One USER created, one ITEM turned into a PRODUCT
+        assertEquals(1, entityTypeCounters.count(Entity.EntityType.USER));
+        assertEquals(1, entityTypeCounters.count(Entity.EntityType.PRODUCT));
+        assertEquals(-1, entityTypeCounters.count(Entity.EntityType.ITEM));
+        // Only the operations that succeeded are published
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        List<EntityChangeEvent> published = events.getAllValues().stream().map(EntityChangeEvent.class::cast).toList();
+        assertEquals(List.of(EntityChangeEvent.Change.CREATED, EntityChangeEvent.Change.UPDATED), published.stream().map(EntityChangeEvent::change).toList());
+        assertEquals(List.of(100L, 5L), published.stream().map(EntityChangeEvent::entityId).toList());
+    }
+
+    @Test
+    void testExecute_UnchangedUpdateNotMarked() throws ValidationException {
+        when(entityRepository.findAllById(anyIterable())).thenReturn(List.of(existing));
+
+        BulkResponse response = bulkService.execute(List.of(
+                new BulkOperationDTO(BulkOperationDTO.Operation.UPDATE, 5L, new EntityDTO("Old", "Old", Entity.EntityType.ITEM))));
+
+        assertEquals(200, response.getItems().get(0).getStatus());
+        // Nothing dirty, so the flush leaves the version and the change sequence alone
+        verify(entityManager, times(1)).flush();
+        verify(entityRepository, never()).markChanged(any());
+        assertEquals(0, entityTypeCounters.count(Entity.EntityType.ITEM));
+    }
+
+    @Test
+    void testExecute_DeleteLeavesTombstone() throws ValidationException {
+        when(entityRepository.findAllById(anyIterable())).thenReturn(List.of(existing));
+
+        BulkResponse response = bulkService.execute(List.of(
+                new BulkOperationDTO(BulkOperationDTO.Operation.DELETE, 5L, null)));
+
+        assertEquals(200, response.getItems().get(0).getStatus());
+        verify(entityManager, times(1)).remove(existing);
+        ArgumentCaptor<EntityTombstone> tombstone = ArgumentCaptor.forClass(EntityTombstone.class);
+        verify(entityManager, times(1)).persist(tombstone.capture());
+        assertEquals(5L, tombstone.getValue().getEntityId());
+        verify(entityRepository, never()).markChanged(any());
+    }
+
+    @Test
+    void testExecute_RolledBackChunk() throws ValidationException {
+        doThrow(new IllegalStateException("insert into entities (name) values ('New')")).when(entityManager).flush();
+
+        BulkResponse response = bulkService.execute(List.of(
+                new BulkOperationDTO(BulkOperationDTO.Operation.CREATE, null, new EntityDTO("New", "Created", Entity.EntityType.USER))));
+
+        assertTrue(response.isErrors());
+        assertEquals(500, response.getItems().get(0).getStatus());
+        // The database error is logged, not returned
+        assertEquals("Operation could not be applied", response.getItems().get(0).getError());
+        verify(entityManager, times(1)).clear();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testExecute_RolledBackChunkRetriedPerOperation() throws ValidationException {
+        // The flush fails while the persistence context holds the duplicate
+        List<Entity> persisted = new ArrayList<>();
+        doAnswer(invocation -> {
+            Entity entity = invocation.getArgument(0);
+            entity.setEntityId(100L + persisted.size());
+            persisted.add(entity);
+            return null;
+        }).when(entityManager).persist(any(Entity.class));
+        doAnswer(invocation -> {
+            persisted.clear();
+            return null;
+        }).when(entityManager).clear();
+        doAnswer(invocation -> {
+            if (persisted.stream().anyMatch(entity -> entity.getName().equals("Duplicate"))) {
+                throw new DuplicateKeyException("duplicate key value violates unique constraint");
+            }
+            return null;
+        }).when(entityManager).flush();
+
+        BulkResponse response = bulkService.execute(List.of(
+                new BulkOperationDTO(BulkOperationDTO.Operation.CREATE, null, new EntityDTO("New", "Created", Entity.EntityType.USER)),
+                new BulkOperationDTO(BulkOperationDTO.Operation.CREATE, null, new EntityDTO("Duplicate", "Created", Entity.EntityType.USER))));
+
+        assertEquals(List.of(201, 409), response.getItems().stream().map(BulkResponse.Item::getStatus).toList());
+        assertEquals("Entity conflicts with a stored entity", response.getItems().get(1).getError());
+        // The chunk, then each operation in its own transaction
+        verify(transactionTemplate, times(3)).execute(any());
+        assertEquals(1, entityTypeCounters.count(Entity.EntityType.USER));
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testExecute_EmptyRequest() {
+        ValidationException exception = assertThrows(ValidationException.class, () -> bulkService.execute(List.of()));
+
+        assertEquals("Bulk request must contain at least one operation", exception.getMessage());
+        verifyNoInteractions(entityRepository);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.model.common.EntityChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class EntityChangeServiceImplTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)\nevent:(\\w+)");
+
+    private EntityChangeServiceImpl changeService;
+
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        changeService.close();
+    }
+
+    @Test
+    void testPublish_SentToSubscribers() throws Exception {
+        start(16, EntityChangeServiceImpl.Overflow.DISCONNECT);
+        MockHttpServletResponse first = subscribe(null);
+        MockHttpServletResponse second = subscribe(null);
+
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.CREATED, 1L));
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.UPDATED, 1L));
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.DELETED, 1L));
+
+        assertEquals(List.of("created", "updated", "deleted"), awaitEvents(first, 3));
+        assertEquals(List.of("created", "updated", "deleted"), awaitEvents(second, 3));
+        assertTrue(first.getContentAsString().contains("\"entityId\":1"));
+    }
+
+    @Test
+    void testSubscribe_ResumesAfterLastEventId() throws Exception {
+        start(16, EntityChangeServiceImpl.Overflow.DISCONNECT);
+        MockHttpServletResponse first = subscribe(null);
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.CREATED, 1L));
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.CREATED, 2L));
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.DELETED, 1L));
+        awaitEvents(first, 3);
+        Matcher firstEvent = EVENT_ID.matcher(first.getContentAsString());
+        assertTrue(firstEvent.find());
+
+        // Reconnecting after the first event replays the other two
+        MockHttpServletResponse resumed = subscribe(firstEvent.group(1));
+
+        assertEquals(List.of("created", "deleted"), awaitEvents(resumed, 2));
+        assertTrue(resumed.getContentAsString().contains("\"entityId\":2"));
+    }
+
+    @Test
+    void testSubscribe_UnknownLastEventIdGetsReset() throws Exception {
+        start(16, EntityChangeServiceImpl.Overflow.DISCONNECT);
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.CREATED, 1L));
+
+        MockHttpServletResponse response = subscribe("previous-run-7");
+
+        assertEquals(List.of("reset"), awaitEvents(response, 1));
+    }
+
+    @Test
+    void testOverflow_Disconnect() throws Exception {
+        // No room at all: the first live event overflows
+        start(0, EntityChangeServiceImpl.Overflow.DISCONNECT);
+        subscribe(null);
+        assertEquals(1, changeService.subscriberCount());
+
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.CREATED, 1L));
+
+        assertEquals(0, changeService.subscriberCount());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        changeService.bindTo(registry);
+        assertEquals(1.0, registry.get("entities.changes.disconnected").functionCounter().count());
+    }
+
+    @Test
+    void testOverflow_Drop() throws Exception {
+        start(0, EntityChangeServiceImpl.Overflow.DROP);
+        subscribe(null);
+
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.CREATED, 1L));
+        changeService.publish(EntityChangeEvent.of(EntityChangeEvent.Change.CREATED, 2L));
+
+        assertEquals(1, changeService.subscriberCount());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        changeService.bindTo(registry);
+        assertEquals(2.0, registry.get("entities.changes.dropped").functionCounter().count());
+    }
+
+    private void start(int bufferSize, EntityChangeServiceImpl.Overflow overflow) {
+        changeService = new EntityChangeServiceImpl(bufferSize, 4, overflow, Duration.ofMinutes(1));
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChangesController(changeService)).build();
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get("/changes");
+        if (lastEventId != null) {
+            get.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(get).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    // Names of the events written so far, once there are at least the expected number
+    private static List<String> awaitEvents(MockHttpServletResponse response, int expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            List<String> names = EVENT_ID.matcher(response.getContentAsString()).results().map(result -> result.group(2)).toList();
+            if (names.size() >= expected || System.nanoTime() > deadline) {
+                return names;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @RestController
+    static class ChangesController {
+
+        private final EntityChangeServiceImpl changeService;
+
+        ChangesController(EntityChangeServiceImpl changeService) {
+            this.changeService = changeService;
+        }
+
+        @GetMapping("/changes")
+        SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return changeService.subscribe(lastEventId);
+        }
+    }
+}
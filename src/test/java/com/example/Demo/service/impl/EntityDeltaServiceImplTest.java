@@ -0,0 +1,132 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.EntityDeltaResponse;
+import com.example.Demo.model.common.EntityDeltaToken;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dao.EntityTombstone;
+import com.example.Demo.repository.EntityRepository;
+import com.example.Demo.repository.EntityTombstoneRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EntityDeltaServiceImplTest {
+
+    @Mock
+    private EntityRepository entityRepository;
+
+    @Mock
+    private EntityTombstoneRepository entityTombstoneRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    // No settle: a fence counts as soon as it is sampled
+    @InjectMocks
+    private EntityDeltaServiceImpl deltaService = new EntityDeltaServiceImpl(Duration.ZERO, Duration.ofSeconds(1), Duration.ofDays(30), 100);
+
+    @Test
+    void testGetDelta_MergesChangesAndDeletesUpToTheFence() throws ValidationException {
+        sampleFence(11L);
+        when(entityRepository.findChanged(4L, 10L, Limit.of(10))).thenReturn(List.of(entity(1L, 5L), entity(2L, 8L)));
+        when(entityTombstoneRepository.findDeleted(4L, 10L, Limit.of(10))).thenReturn(List.of(tombstone(3L, 6L)));
+
+        EntityDeltaResponse response = deltaService.getDelta(token(4L), 10);
+
+        assertEquals(List.of(1L, 2L), response.getChanged().stream().map(Entity::getEntityId).toList());
+        assertEquals(List.of(3L), response.getDeleted());
+        assertFalse(response.isHasMore());
+        // Everything up to the fence has been seen, including values no row holds any more
+        assertEquals(10L, EntityDeltaToken.decode(response.getNextToken()).getChangeSeq());
+    }
+
+    @Test
+    void testGetDelta_LimitReached() throws ValidationException {
+        sampleFence(11L);
+        when(entityRepository.findChanged(0L, 10L, Limit.of(2))).thenReturn(List.of(entity(1L, 2L), entity(2L, 5L)));
+        when(entityTombstoneRepository.findDeleted(0L, 10L, Limit.of(2))).thenReturn(List.of(tombstone(3L, 3L)));
+
+        EntityDeltaResponse response = deltaService.getDelta(null, 2);
+
+        assertEquals(List.of(1L), response.getChanged().stream().map(Entity::getEntityId).toList());
+        assertEquals(List.of(3L), response.getDeleted());
+        assertTrue(response.isHasMore());
+        assertEquals(3L, EntityDeltaToken.decode(response.getNextToken()).getChangeSeq());
+    }
+
+    @Test
+    void testGetDelta_NoSettledFence() throws ValidationException {
+        EntityDeltaServiceImpl unsettled = new EntityDeltaServiceImpl(Duration.ofHours(1), Duration.ofSeconds(1), Duration.ofDays(30), 100);
+        ReflectionTestUtils.setField(unsettled, "jdbcTemplate", jdbcTemplate);
+        when(jdbcTemplate.queryForObject("select nextval('entity_change_seq')", Long.class)).thenReturn(11L);
+        unsettled.sampleFence();
+
+        EntityDeltaResponse response = unsettled.getDelta(token(4L), 10);
+
+        assertTrue(response.getChanged().isEmpty());
+        assertTrue(response.getDeleted().isEmpty());
+        assertFalse(response.isHasMore());
+        assertEquals(4L, EntityDeltaToken.decode(response.getNextToken()).getChangeSeq());
+        verifyNoInteractions(entityRepository, entityTombstoneRepository);
+    }
+
+    @Test
+    void testGetDelta_ExpiredToken() {
+        String expired = new EntityDeltaToken(4L, Instant.now().minus(Duration.ofDays(31))).encode();
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> deltaService.getDelta(expired, 10));
+
+        assertTrue(exception.getMessage().startsWith("Delta token expired"));
+    }
+
+    @Test
+    void testGetDelta_InvalidTokenOrLimit() {
+        assertThrows(ValidationException.class, () -> deltaService.getDelta("not-a-token", 10));
+        assertThrows(ValidationException.class, () -> deltaService.getDelta(null, 0));
+        assertThrows(ValidationException.class, () -> deltaService.getDelta(null, 101));
+    }
+
+    @Test
+    void testPurgeTombstones_KeepsRetentionPlusSettle() {
+        deltaService.purgeTombstones();
+
+        verify(entityTombstoneRepository, times(1)).purgeDeletedBefore(argThat(cutoff ->
+                cutoff.isBefore(Instant.now().minus(Duration.ofDays(30)))));
+    }
+
+    private void sampleFence(Long value) {
+        when(jdbcTemplate.queryForObject("select nextval('entity_change_seq')", Long.class)).thenReturn(value);
+        deltaService.sampleFence();
+    }
+
+    private static String token(long changeSeq) {
+        return new EntityDeltaToken(changeSeq, Instant.now()).encode();
+    }
+
+    private static Entity entity(Long id, Long changeSeq) {
+        Entity entity = new Entity();
+        entity.setEntityId(id);
+        ReflectionTestUtils.setField(entity, "changeSeq", changeSeq);
+        return entity;
+    }
+
+    private static EntityTombstone tombstone(Long entityId, Long changeSeq) {
+        EntityTombstone tombstone = new EntityTombstone(entityId);
+        ReflectionTestUtils.setField(tombstone, "changeSeq", changeSeq);
+        return tombstone;
+    }
+}
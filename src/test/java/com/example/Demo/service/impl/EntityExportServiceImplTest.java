@@ -0,0 +1,88 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.model.common.ExportFormat;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.repository.EntityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EntityExportServiceImplTest {
+
+    @Mock
+    private EntityRepository entityRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private EntityExportServiceImpl exportService;
+
+    private Entity first;
+    private Entity second;
+
+    @BeforeEach
+    void setUp() {
+        first = new Entity();
+        first.setEntityId(1L);
+        first.setName("Plain");
+        first.setDescription("One");
+        first.setEntityType(Entity.EntityType.USER);
+        first.setCreatedAt(LocalDate.of(2024, 1, 1));
+        first.setUpdatedAt(LocalDate.of(2024, 1, 2));
+
+        second = new Entity();
+        second.setEntityId(2L);
+        second.setName("Needs, \"quotes\"");
+        second.setDescription("Two");
+        second.setEntityType(Entity.EntityType.ITEM);
+    }
+
+    @Test
+    void testExportNdjson() throws IOException {
+        when(entityRepository.streamAll()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.export(ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("entityId").asLong());
+        assertEquals("Needs, \"quotes\"", objectMapper.readTree(lines[1]).get("name").asText());
+        verify(entityManager, times(2)).detach(any(Entity.class));
+    }
+
+    @Test
+    void testExportCsv() throws IOException {
+        when(entityRepository.streamAll()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ExportFormat.CSV, out);
+
+        assertEquals("entityId,name,description,entityType,createdAt,updatedAt\n"
+                        + "1,Plain,One,USER,2024-01-01,2024-01-02\n"
+                        + "2,\"Needs, \"\"quotes\"\"\",Two,ITEM,,\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -1,24 +1,58 @@
 package com.example.Demo.service.impl;
 
+import com.example.Demo.Exception.EntityNotFoundException;
+import com.example.Demo.Exception.PreconditionFailedException;
 import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.datasource.ReadYourWrites;
+import com.example.Demo.model.common.CountMode;
+import com.example.Demo.model.common.EntityChangeEvent;
+import com.example.Demo.model.common.EntityCriteria;
+import com.example.Demo.model.common.EntityCursor;
+import com.example.Demo.model.common.EntityFields;
+import com.example.Demo.model.common.EntityStatsResponse;
+import com.example.Demo.model.common.EntityTypeCount;
+import com.example.Demo.model.common.EntityVersion;
 import com.example.Demo.model.common.PageResponse;
+import com.example.Demo.model.common.ReplacedType;
 import com.example.Demo.model.dao.Entity;
 import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.model.dto.EntityPatchDTO;
 import com.example.Demo.repository.EntityRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
-
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -30,6 +64,18 @@ public class EntityServiceImplTest {
     @Mock
     private EntityRepository entityRepository;
 
+    @Spy
+    private EntityCountCache entityCountCache = new EntityCountCache(Duration.ofSeconds(30));
+
+    @Spy
+    private EntityCache entityCache = new EntityCache(100, Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(5));
+
+    @Spy
+    private EntityTypeCounters entityTypeCounters = new EntityTypeCounters();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private EntityServiceImpl userService;
 
@@ -57,6 +103,8 @@ public class EntityServiceImplTest {
         assertEquals(entityDTO.getDescription(), result.getDescription());
         assertEquals(entityDTO.getEntityType(), result.getEntityType());
         verify(entityRepository, times(1)).save(any(Entity.class)); // Verifying save was called once
+        assertEquals(1, entityTypeCounters.count(Entity.EntityType.USER));
+        verify(eventPublisher, times(1)).publishEvent(argThat(changed(EntityChangeEvent.Change.CREATED, result.getEntityId())));
     }
 
     @Test
@@ -101,22 +149,123 @@ public class EntityServiceImplTest {
         verify(entityRepository, times(1)).findById(anyLong());
     }
 
+    @Test
+    void testGetEntity_MissAfterInvalidationLoadedFromPrimary() {
+        List<Boolean> primary = new ArrayList<>();
+        when(entityRepository.findById(1L)).thenAnswer(invocation -> {
+            primary.add(ReadYourWrites.isActive());
+            return Optional.of(entity);
+        });
+
+        userService.getEntity(1L);
+        entityCache.invalidate(1L);
+        userService.getEntity(1L);
+
+        // A replica may not have the write behind the invalidation yet
+        assertEquals(List.of(false, true), primary);
+        assertFalse(ReadYourWrites.isActive());
+    }
+
+    @Test
+    void testGetEntity_InvalidatedDuringLoadNotCached() {
+        when(entityRepository.findById(1L)).thenAnswer(invocation -> {
+            entityCache.invalidate(1L);
+            return Optional.of(entity);
+        }).thenReturn(Optional.of(entity));
+
+        assertTrue(userService.getEntity(1L).isPresent());
+        userService.getEntity(1L);
+        userService.getEntity(1L);
+
+        verify(entityRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testGetEntity_ServedFromCache() {
+        when(entityRepository.findById(1L)).thenReturn(Optional.of(entity));
+
+        userService.getEntity(1L);
+        Optional<Entity> result = userService.getEntity(1L);
+
+        assertTrue(result.isPresent());
+        verify(entityRepository, times(1)).findById(1L);
+        assertEquals(1, userService.getCacheStats().getHitCount());
+        assertEquals(1, userService.getCacheStats().getMissCount());
+    }
+
+    @Test
+    void testGetEntity_NegativeLookupCached() {
+        when(entityRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(userService.getEntity(1L).isPresent());
+        assertFalse(userService.getEntity(1L).isPresent());
+
+        verify(entityRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testAddEntity_ReplacesNegativeLookup() throws ValidationException {
+        when(entityRepository.findById(1L)).thenReturn(Optional.empty());
+        when(entityRepository.save(any(Entity.class))).thenAnswer(invocation -> {
+            invocation.<Entity>getArgument(0).setEntityId(1L);
+            return invocation.getArgument(0);
+        });
+
+        assertFalse(userService.getEntity(1L).isPresent());
+        userService.addEntity(entityDTO);
+
+        assertTrue(userService.getEntity(1L).isPresent());
+        verify(entityRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testUpdateEntity_InvalidatesCache() {
+        when(entityRepository.findById(1L)).thenReturn(Optional.of(entity));
+        when(entityRepository.update(1L, entityDTO, null)).thenReturn(Optional.of(new ReplacedType(Entity.EntityType.USER)));
+
+        userService.getEntity(1L);
+        userService.updateEntity(1L, entityDTO, null);
+        userService.getEntity(1L);
+
+        verify(entityRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testGetEntityVersion_FromCache() {
+        entity.setVersion(3L);
+        when(entityRepository.findById(1L)).thenReturn(Optional.of(entity));
+        userService.getEntity(1L);
+
+        Optional<EntityVersion> result = userService.getEntityVersion(1L);
+
+        assertEquals(Optional.of(new EntityVersion(3L, entity.getModifiedAt())), result);
+        verify(entityRepository, never()).findVersionById(anyLong());
+    }
+
+    @Test
+    void testGetEntityVersion_FromRepository() {
+        EntityVersion version = new EntityVersion(7L, Instant.parse("2024-05-01T10:15:30Z"));
+        when(entityRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+
+        assertEquals(Optional.of(version), userService.getEntityVersion(1L));
+        verify(entityRepository, never()).findById(anyLong());
+    }
+
     @Test
     void testGetAllEntities() {
         // Given
         Page<Entity> entitiesPage = new PageImpl<>(java.util.List.of(entity));
-        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by(Sort.Order.asc("createdAt")));
-        when(entityRepository.findByEntityType(any(Entity.EntityType.class), any(PageRequest.class)))
-                .thenReturn(entitiesPage);
+        when(entityRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(entitiesPage);
 
         // When
-        PageResponse result = userService.getAllEntity(0, 10, "", "createdAt", "USER");
+        PageResponse result = userService.getAllEntity(new EntityCriteria(null, ""), 0, 10, "createdAt", "asc", CountMode.EXACT, null);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getData().size()); // Assuming 1 entity returned
         assertEquals(1, result.getTotalPages()); // Assuming only 1 page of results
-        verify(entityRepository, times(1)).findByEntityType(any(Entity.EntityType.class), any(PageRequest.class)); // Verifying the repository call
+        verify(entityRepository, times(1)).findAll(any(Specification.class),
+                eq(PageRequest.of(0, 10, Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("entityId"))))); // Verifying the repository call
     }
 
 
@@ -124,52 +273,322 @@ public class EntityServiceImplTest {
     void testGetAllEntitiesWithEntityTypeFilter() {
         // Given
         Page<Entity> entitiesPage = new PageImpl<>(java.util.List.of(entity));
-        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by(Sort.Order.asc("createdAt")));
-        when(entityRepository.findByEntityType(any(Entity.EntityType.class), any(PageRequest.class))).thenReturn(entitiesPage);
+        when(entityRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(entitiesPage);
+        EntityCriteria criteria = new EntityCriteria(Entity.EntityType.USER, null);
+        criteria.setUpdatedFrom(LocalDate.of(2024, 1, 1));
 
         // When
-        PageResponse result = userService.getAllEntity(0, 10, null, "createdAt", "USER");
+        PageResponse result = userService.getAllEntity(criteria, 0, 10, "updatedAt", "desc", CountMode.EXACT, null);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getData().size()); // Assuming 1 entity returned
         assertEquals(1, result.getTotalPages()); // Assuming only 1 page of results
-        verify(entityRepository, times(1)).findByEntityType(any(Entity.EntityType.class), any(PageRequest.class)); // Verifying the repository call
+        verify(entityRepository, times(1)).findAll(any(Specification.class),
+                eq(PageRequest.of(0, 10, Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("entityId"))))); // Verifying the repository call
+    }
+
+
+    @Test
+    void testGetAllEntities_WithoutCount() {
+        FluentQuery.FetchableFluentQuery<Entity> query = stubFindBy(Window.from(List.of(entity), ScrollPosition::offset, true));
+
+        PageResponse result = userService.getAllEntity(new EntityCriteria(), 2, 1, "createdAt", "asc", CountMode.NONE, null);
+
+        assertEquals(1, result.getData().size());
+        assertTrue(result.isHasNext());
+        assertNull(result.getTotalPages());
+        verify(query).scroll(ScrollPosition.offset(1));
+        verify(entityRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(entityRepository, never()).count(any(Specification.class));
     }
 
+    @Test
+    void testGetAllEntities_CachedCount() {
+        stubFindBy(Window.from(List.of(entity), ScrollPosition::offset));
+        when(entityRepository.count(any(Specification.class))).thenReturn(25L);
+        EntityCriteria criteria = new EntityCriteria(Entity.EntityType.USER, null);
+
+        PageResponse first = userService.getAllEntity(criteria, 0, 10, "createdAt", "asc", CountMode.CACHED, null);
+        PageResponse second = userService.getAllEntity(new EntityCriteria(Entity.EntityType.USER, null), 1, 10, "createdAt", "asc", CountMode.CACHED, null);
+
+        assertEquals(3, first.getTotalPages());
+        assertEquals(3, second.getTotalPages());
+        verify(entityRepository, times(1)).count(any(Specification.class));
+    }
+
+    @Test
+    void testGetAllEntities_CountFromTypeCounters() {
+        ReflectionTestUtils.setField(entityTypeCounters, "entityRepository", entityRepository);
+        when(entityRepository.countByEntityType()).thenReturn(List.of(
+                new EntityTypeCount(Entity.EntityType.USER, 25L), new EntityTypeCount(Entity.EntityType.ITEM, 4L)));
+        entityTypeCounters.reconcile();
+        stubFindBy(Window.from(List.of(entity), ScrollPosition::offset));
+
+        PageResponse response = userService.getAllEntity(new EntityCriteria(Entity.EntityType.USER, null), 0, 10, "createdAt", "asc", CountMode.CACHED, null);
+
+        assertEquals(3, response.getTotalPages());
+        verify(entityRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void testGetStats() {
+        ReflectionTestUtils.setField(entityTypeCounters, "entityRepository", entityRepository);
+        when(entityRepository.countByEntityType()).thenReturn(List.of(
+                new EntityTypeCount(Entity.EntityType.USER, 2L), new EntityTypeCount(null, 1L)));
+        entityTypeCounters.reconcile();
+        entityTypeCounters.add(Entity.EntityType.PRODUCT, 1);
+
+        EntityStatsResponse stats = userService.getStats();
+
+        assertEquals(2L, stats.getCounts().get(Entity.EntityType.USER));
+        assertEquals(1L, stats.getCounts().get(Entity.EntityType.PRODUCT));
+        assertEquals(0L, stats.getCounts().get(Entity.EntityType.ITEM));
+        assertEquals(1L, stats.getUntyped());
+        assertEquals(4L, stats.getTotal());
+        assertNotNull(stats.getReconciledAt());
+    }
+
+    @Test
+    void testGetAllEntities_Fields() throws ValidationException {
+        EntityFields fields = EntityFields.parse("name");
+        when(entityRepository.findFields(any(Specification.class), eq(List.of("entityId", "name")), any(Sort.class), eq(20L), eq(11)))
+                .thenReturn(List.of(row(1L, "A"), row(2L, "B"), row(3L, "C"), row(4L, "D"), row(5L, "E"), row(6L, "F"),
+                        row(7L, "G"), row(8L, "H"), row(9L, "I"), row(10L, "J"), row(11L, "K")));
+
+        PageResponse result = userService.getAllEntity(new EntityCriteria(), 2, 10, "createdAt", "asc", CountMode.NONE, fields);
+
+        assertEquals(10, result.getData().size());
+        assertEquals(Map.of("entityId", 1L, "name", "A"), result.getData().get(0));
+        assertTrue(result.isHasNext());
+        assertNull(result.getTotalPages());
+        verify(entityRepository, never()).findBy(any(Specification.class), any(Function.class));
+        verify(entityRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void testGetAllEntitiesAfter_Fields() throws ValidationException {
+        Map<String, Object> last = row(7L, "G");
+        last.put("createdAt", LocalDate.of(2024, 1, 1));
+        when(entityRepository.findFields(any(Specification.class), eq(List.of("entityId", "name", "createdAt")), any(Sort.class), eq(0L), eq(2)))
+                .thenReturn(List.of(last, row(8L, "H")));
+
+        PageResponse result = userService.getAllEntityAfter("", new EntityCriteria(), 1, "createdAt", "asc", EntityFields.parse("name"));
+
+        // The sort key is only selected for the cursor
+        assertEquals(List.of(Map.of("entityId", 7L, "name", "G")), result.getData());
+        EntityCursor next = EntityCursor.decode(result.getNextCursor());
+        assertEquals(LocalDate.of(2024, 1, 1), next.getSortValue());
+        assertEquals(7L, next.getEntityId());
+    }
+
+    @Test
+    void testGetEntityFields() throws ValidationException {
+        EntityFields fields = EntityFields.parse("name");
+        when(entityRepository.findFields(any(Specification.class), eq(List.of("entityId", "name")), any(Sort.class), eq(0L), eq(1)))
+                .thenReturn(List.of(row(1L, "Test")));
+
+        assertEquals(Optional.of(Map.of("entityId", 1L, "name", "Test")), userService.getEntityFields(1L, fields));
+        verify(entityRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetEntityFields_FromCache() throws ValidationException {
+        entity.setEntityId(1L);
+        when(entityRepository.findById(1L)).thenReturn(Optional.of(entity));
+        userService.getEntity(1L);
+
+        assertEquals(Optional.of(Map.of("entityId", 1L, "name", "Test")), userService.getEntityFields(1L, EntityFields.parse("name")));
+        verify(entityRepository, never()).findFields(any(), any(), any(), anyLong(), anyInt());
+    }
+
+    private static Map<String, Object> row(Long entityId, String name) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("entityId", entityId);
+        row.put("name", name);
+        return row;
+    }
+
+    @Test
+    void testGetAllEntitiesAfter_FirstPage() throws ValidationException {
+        entity.setEntityId(7L);
+        entity.setCreatedAt(LocalDate.of(2024, 1, 1));
+        FluentQuery.FetchableFluentQuery<Entity> query = stubFindBy(Window.from(List.of(entity), i -> ScrollPosition.keyset(), true));
+
+        PageResponse result = userService.getAllEntityAfter("", new EntityCriteria(), 1, "createdAt", "desc", null);
+
+        assertEquals(1, result.getData().size());
+        EntityCursor next = EntityCursor.decode(result.getNextCursor());
+        assertEquals("createdAt", next.getSortBy());
+        assertEquals(Sort.Direction.DESC, next.getDirection());
+        assertEquals(LocalDate.of(2024, 1, 1), next.getSortValue());
+        assertEquals(7L, next.getEntityId());
+        verify(query).scroll(ScrollPosition.keyset());
+        verify(entityRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void testGetAllEntitiesAfter_ContinuesFromCursor() throws ValidationException {
+        String cursor = new EntityCursor("createdAt", Sort.Direction.ASC, LocalDate.of(2024, 1, 1), 7L).encode();
+        FluentQuery.FetchableFluentQuery<Entity> query = stubFindBy(Window.from(List.of(entity), i -> ScrollPosition.keyset()));
+
+        PageResponse result = userService.getAllEntityAfter(cursor, new EntityCriteria(Entity.EntityType.USER, null), 10, "createdAt", "asc", null);
+
+        assertNull(result.getNextCursor());
+        verify(query).limit(10);
+        // The cursor is part of the specification, with its index range bound; the scroll starts there
+        verify(query).scroll(argThat(ScrollPosition::isInitial));
+    }
+
+    @Test
+    void testGetAllEntitiesAfter_InvalidCursor() {
+        assertThrows(ValidationException.class, () -> userService.getAllEntityAfter("not-a-cursor", new EntityCriteria(), 10, "createdAt", "asc", null));
+
+        String cursor = new EntityCursor("createdAt", Sort.Direction.ASC, LocalDate.of(2024, 1, 1), 7L).encode();
+        assertThrows(ValidationException.class, () -> userService.getAllEntityAfter(cursor, new EntityCriteria(), 10, "updatedAt", "asc", null));
+        assertThrows(ValidationException.class, () -> userService.getAllEntityAfter(cursor, new EntityCriteria(), 10, "createdAt", "desc", null));
+    }
+
+    // Runs the service's fluent query function against a query mock that returns the window
+    @SuppressWarnings("unchecked")
+    private FluentQuery.FetchableFluentQuery<Entity> stubFindBy(Window<Entity> window) {
+        FluentQuery.FetchableFluentQuery<Entity> query = mock(FluentQuery.FetchableFluentQuery.class, RETURNS_SELF);
+        when(query.scroll(any(ScrollPosition.class))).thenReturn(window);
+        when(entityRepository.findBy(any(Specification.class), any(Function.class)))
+                .thenAnswer(invocation -> invocation.<Function<FluentQuery.FetchableFluentQuery<Entity>, Object>>getArgument(1).apply(query));
+        return query;
+    }
 
     @Test
     void testUpdateEntity() {
-        when(entityRepository.getReferenceById(anyLong())).thenReturn(entity);
-        when(entityRepository.save(any(Entity.class))).thenReturn(entity);
+        when(entityRepository.update(1L, entityDTO, 3L)).thenReturn(Optional.of(new ReplacedType(Entity.EntityType.ITEM)));
+
+        userService.updateEntity(1L, entityDTO, 3L);
+
+        // A single UPDATE: nothing is read before or after it
+        verify(entityRepository, times(1)).update(1L, entityDTO, 3L);
+        // The entity changed from ITEM to USER
+        assertEquals(-1, entityTypeCounters.count(Entity.EntityType.ITEM));
+        assertEquals(1, entityTypeCounters.count(Entity.EntityType.USER));
+        verify(entityRepository, never()).findById(anyLong());
+        verify(entityRepository, never()).existsById(anyLong());
+        verify(entityRepository, never()).save(any(Entity.class));
+        verify(entityCache, times(1)).invalidate(1L);
+        verify(eventPublisher, times(1)).publishEvent(argThat(changed(EntityChangeEvent.Change.UPDATED, 1L)));
+    }
 
-        userService.updateEntity(1L, entityDTO);
+    @Test
+    void testUpdateEntity_VersionConflict() {
+        when(entityRepository.update(1L, entityDTO, 3L)).thenReturn(Optional.empty());
+        when(entityRepository.existsById(1L)).thenReturn(true);
 
-        assertEquals(entityDTO.getName(), entity.getName());
-        assertEquals(entityDTO.getDescription(), entity.getDescription());
-        assertEquals(entityDTO.getEntityType(), entity.getEntityType());
-        verify(entityRepository, times(1)).getReferenceById(anyLong());
-        verify(entityRepository, times(1)).save(any(Entity.class));
+        assertThrows(PreconditionFailedException.class, () -> userService.updateEntity(1L, entityDTO, 3L));
+        verify(entityCache, times(1)).invalidate(1L);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testUpdateEntity_NotFound() {
+        when(entityRepository.update(1L, entityDTO, 3L)).thenReturn(Optional.empty());
+        when(entityRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> userService.updateEntity(1L, entityDTO, 3L));
+    }
+
+    @Test
+    void testPatchEntity() throws ValidationException {
+        EntityPatchDTO patch = new EntityPatchDTO("Patched", null, null);
+        when(entityRepository.patch(1L, patch, null)).thenReturn(Optional.of(new ReplacedType(Entity.EntityType.USER)));
+
+        userService.patchEntity(1L, patch, null);
+
+        verify(entityRepository, times(1)).patch(1L, patch, null);
+        verify(entityRepository, never()).findById(anyLong());
+        verify(entityRepository, never()).save(any(Entity.class));
+        verify(entityCache, times(1)).invalidate(1L);
+    }
+
+    @Test
+    void testPatchEntity_TypeChangeCounted() throws ValidationException {
+        EntityPatchDTO patch = new EntityPatchDTO(null, null, Entity.EntityType.PRODUCT);
+        when(entityRepository.patch(1L, patch, 2L)).thenReturn(Optional.of(new ReplacedType(null)));
+
+        userService.patchEntity(1L, patch, 2L);
+
+        assertEquals(-1, entityTypeCounters.stats().getUntyped());
+        assertEquals(1, entityTypeCounters.count(Entity.EntityType.PRODUCT));
+    }
+
+    @Test
+    void testPatchEntity_NotFound() {
+        EntityPatchDTO patch = new EntityPatchDTO("Patched", null, null);
+        when(entityRepository.patch(1L, patch, null)).thenReturn(Optional.empty());
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> userService.patchEntity(1L, patch, null));
+
+        assertEquals("Entity not found with id: 1", exception.getMessage());
+    }
+
+    @Test
+    void testPatchEntity_Empty() {
+        assertThrows(ValidationException.class, () -> userService.patchEntity(1L, new EntityPatchDTO(), null));
+
+        verify(entityRepository, never()).patch(anyLong(), any(EntityPatchDTO.class), any());
     }
 
     @Test
     void testDeleteEntityById_Found() {
-        when(entityRepository.findById(anyLong())).thenReturn(Optional.of(entity));
+        when(entityRepository.removeById(1L)).thenReturn(Optional.of(new ReplacedType(Entity.EntityType.USER)));
 
         userService.deleteEntityById(1L);
 
-        verify(entityRepository, times(1)).deleteById(anyLong());
+        verify(entityRepository, times(1)).removeById(1L);
+        assertEquals(-1, entityTypeCounters.count(Entity.EntityType.USER));
+        verify(entityRepository, never()).findById(anyLong());
+        verify(entityCache, times(1)).invalidate(1L);
+        verify(eventPublisher, times(1)).publishEvent(argThat(changed(EntityChangeEvent.Change.DELETED, 1L)));
     }
 
     @Test
     void testDeleteEntityById_NotFound() {
-        when(entityRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(entityRepository.removeById(1L)).thenReturn(Optional.empty());
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             userService.deleteEntityById(1L);
         });
 
         assertEquals("Entity not found with ID: 1", exception.getMessage());
-        verify(entityRepository, times(1)).findById(anyLong());
+        assertEquals(0, entityTypeCounters.count(null));
+    }
+
+    @Test
+    void testDeleteEntities_InChunks() throws ValidationException {
+        ReflectionTestUtils.setField(userService, "deleteChunkSize", 2);
+        LocalDate before = LocalDate.of(2024, 1, 1);
+        when(entityRepository.findIdsToDelete(Long.MIN_VALUE, Entity.EntityType.USER, before, 2)).thenReturn(List.of(1L, 2L));
+        when(entityRepository.findIdsToDelete(2L, Entity.EntityType.USER, before, 2)).thenReturn(List.of(5L));
+        when(entityRepository.removeAllById(anyCollection())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        long deleted = userService.deleteEntities("USER", before);
+
+        assertEquals(3, deleted);
+        verify(entityRepository, times(1)).removeAllById(List.of(1L, 2L));
+        verify(entityRepository, times(1)).removeAllById(List.of(5L));
+        assertEquals(-3, entityTypeCounters.count(Entity.EntityType.USER));
+        verify(eventPublisher, times(1)).publishEvent(argThat(changed(EntityChangeEvent.Change.DELETED, 1L)));
+        verify(eventPublisher, times(1)).publishEvent(argThat(changed(EntityChangeEvent.Change.DELETED, 2L)));
+        verify(eventPublisher, times(1)).publishEvent(argThat(changed(EntityChangeEvent.Change.DELETED, 5L)));
+    }
+
+    @Test
+    void testDeleteEntities_RequiresFilter() {
+        assertThrows(ValidationException.class, () -> userService.deleteEntities(null, null));
+
+        verify(entityRepository, never()).removeAllById(anyCollection());
+    }
+
+    private static ArgumentMatcher<Object> changed(EntityChangeEvent.Change change, Long entityId) {
+        return event -> event instanceof EntityChangeEvent changeEvent
+                && changeEvent.change() == change && Objects.equals(entityId, changeEvent.entityId());
     }
 }
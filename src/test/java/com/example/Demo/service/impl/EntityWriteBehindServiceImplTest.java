@@ -0,0 +1,221 @@
+package com.example.Demo.service.impl;
+
+import com.example.Demo.Exception.TooManyRequestsException;
+import com.example.Demo.Exception.ValidationException;
+import com.example.Demo.model.common.EntityChangeEvent;
+import com.example.Demo.model.common.WriteBehindStatus;
+import com.example.Demo.model.dao.Entity;
+import com.example.Demo.model.dto.EntityDTO;
+import com.example.Demo.repository.EntityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EntityWriteBehindServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    @Mock
+    private EntityIdAllocator entityIdAllocator;
+
+    @Mock
+    private EntityRepository entityRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private EntityCache entityCache = new EntityCache(100, Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(5));
+
+    @Spy
+    private EntityTypeCounters entityTypeCounters = new EntityTypeCounters();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Path journal = tempDir.resolve(UUID.randomUUID() + ".journal");
+
+    @InjectMocks
+    private EntityWriteBehindServiceImpl writeBehindService = new EntityWriteBehindServiceImpl(true, 1, 10, journal);
+
+    @BeforeEach
+    void setUp() {
+        // Run the transaction callback inline
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(entityIdAllocator.next()).thenReturn(51L, 52L, 53L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehindService.stop();
+    }
+
+    @Test
+    void testSubmit_InsertedByWriter() throws Exception {
+        writeBehindService.start();
+
+        WriteBehindStatus accepted = writeBehindService.submit(new EntityDTO("Async", "Queued", Entity.EntityType.PRODUCT));
+
+        assertEquals(51L, accepted.getId());
+        assertEquals(WriteBehindStatus.State.PENDING, accepted.getState());
+        awaitState(51L, WriteBehindStatus.State.CREATED);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(entityCache, times(1)).invalidate(51L);
+        assertEquals(1, entityTypeCounters.count(Entity.EntityType.PRODUCT));
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, timeout(5000).times(1)).publishEvent(published.capture());
+        assertEquals(EntityChangeEvent.Change.CREATED, ((EntityChangeEvent) published.getValue()).change());
+        assertEquals(51L, ((EntityChangeEvent) published.getValue()).entityId());
+        assertEquals(0, Files.size(journal));
+    }
+
+    @Test
+    void testSubmit_QueueFull() throws Exception {
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    inserting.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new int[0][];
+                });
+        writeBehindService.start();
+
+        // The writer holds the first entity, the second fills the queue of one
+        writeBehindService.submit(new EntityDTO("First", "Queued", Entity.EntityType.USER));
+        assertTrue(inserting.await(5, TimeUnit.SECONDS));
+        writeBehindService.submit(new EntityDTO("Second", "Queued", Entity.EntityType.USER));
+
+        assertThrows(TooManyRequestsException.class,
+                () -> writeBehindService.submit(new EntityDTO("Third", "Rejected", Entity.EntityType.USER)));
+        release.countDown();
+        awaitState(52L, WriteBehindStatus.State.CREATED);
+    }
+
+    @Test
+    void testSubmit_NotStarted() {
+        assertThrows(TooManyRequestsException.class,
+                () -> writeBehindService.submit(new EntityDTO("Async", "Queued", Entity.EntityType.USER)));
+    }
+
+    @Test
+    void testSubmit_ValidationException() {
+        assertThrows(ValidationException.class, () -> writeBehindService.submit(new EntityDTO()));
+
+        verify(entityIdAllocator, never()).next();
+    }
+
+    @Test
+    void testSubmit_RejectedByDatabase() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        writeBehindService.start();
+
+        writeBehindService.submit(new EntityDTO("Async", "Queued", Entity.EntityType.USER));
+
+        WriteBehindStatus status = awaitState(51L, WriteBehindStatus.State.FAILED);
+        assertEquals("value too long", status.getError());
+        assertEquals(0, entityTypeCounters.count(Entity.EntityType.USER));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStart_ReplaysJournal() throws Exception {
+        WriteBehindJournal previousRun = new WriteBehindJournal(journal, objectMapper);
+        previousRun.append(new WriteBehindJournal.Entry(7L, "Inserted", "Before crash", Entity.EntityType.ITEM, Instant.now()));
+        previousRun.append(new WriteBehindJournal.Entry(8L, "Missing", "Before crash", Entity.EntityType.ITEM, Instant.now()));
+        previousRun.close();
+        when(entityRepository.findExistingIds(List.of(7L, 8L))).thenReturn(List.of(7L));
+
+        writeBehindService.start();
+        awaitState(8L, WriteBehindStatus.State.CREATED);
+        // Joins the writer
+        writeBehindService.stop();
+
+        ArgumentCaptor<Collection<WriteBehindJournal.Entry>> replayed = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), replayed.capture(), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(8L), replayed.getValue().stream().map(WriteBehindJournal.Entry::id).toList());
+        assertEquals(0, Files.size(journal));
+    }
+
+    @Test
+    void testStart_ReplaysOnWriterWhileDatabaseUnavailable() throws Exception {
+        WriteBehindJournal previousRun = new WriteBehindJournal(journal, objectMapper);
+        previousRun.append(new WriteBehindJournal.Entry(8L, "Missing", "Before crash", Entity.EntityType.ITEM, Instant.now()));
+        previousRun.close();
+        CountDownLatch down = new CountDownLatch(1);
+        when(entityRepository.findExistingIds(List.of(8L))).thenAnswer(invocation -> {
+            down.countDown();
+            throw new DataAccessResourceFailureException("connection refused");
+        }).thenReturn(List.of());
+
+        // Returns while the database is still unreachable; the entry stays journaled until inserted
+        writeBehindService.start();
+        assertTrue(down.await(5, TimeUnit.SECONDS));
+        assertEquals(WriteBehindStatus.State.PENDING, writeBehindService.getStatus(8L).orElseThrow().getState());
+        assertTrue(Files.size(journal) > 0);
+
+        awaitState(8L, WriteBehindStatus.State.CREATED);
+        writeBehindService.stop();
+        assertEquals(1, entityTypeCounters.count(Entity.EntityType.ITEM));
+        assertEquals(0, Files.size(journal));
+    }
+
+    private WriteBehindStatus awaitState(Long id, WriteBehindStatus.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            WriteBehindStatus status = writeBehindService.getStatus(id).orElseThrow();
+            if (status.getState() == state) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        fail("Entity " + id + " did not reach " + state);
+        return null;
+    }
+}